@@ -0,0 +1,116 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.config.SqlStatementCounter;
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link OrderService#createOrder} against the in-memory H2 profile: customer check,
+ * order number, stock reservation, cache eviction and the batched inserts. Sample mode reports the
+ * latency percentiles per order size; the {@code statements} and {@code orders} counters give the
+ * database round trips per order, which should stay flat as orders grow. Statements are counted at
+ * the JDBC layer, so the JdbcTemplate batches are included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class OrderPlacementBenchmark {
+    
+    private static final int PRODUCTS = 1000;
+    
+    @Param({"1", "10", "100", "1000"})
+    int itemsPerOrder;
+    
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Long customerId;
+    private List<Long> productIds;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(EcommerceMcpDemoApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setAdditionalProfiles("h2");
+        application.setDefaultProperties(Map.of("spring.ai.openai.api-key", "unused"));
+        context = application.run();
+        
+        orderService = context.getBean(OrderService.class);
+        CustomerService customerService = context.getBean(CustomerService.class);
+        ProductService productService = context.getBean(ProductService.class);
+        
+        CustomerDto customer = new CustomerDto();
+        customer.setFirstName("Bench");
+        customer.setLastName("Mark");
+        customer.setEmail("bench.mark@example.com");
+        customer.setPhone("+1-555-0100");
+        customer.setAddress(new CustomerDto.AddressDto("1 Bench St", "New York", "NY", "10001", "USA"));
+        customerId = customerService.createCustomer(customer).getId();
+        
+        productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductDto product = new ProductDto();
+            product.setName("Benchmark product " + i);
+            product.setPrice(new BigDecimal("9.99"));
+            product.setCategory("Benchmark");
+            product.setSku("BENCH-" + i);
+            // Large enough that no trial runs out of stock
+            product.setStockQuantity(Integer.MAX_VALUE);
+            productIds.add(productService.createProduct(product).getId());
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+        
+        public long orders;
+        public long statements;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            orders = 0;
+            statements = 0;
+        }
+    }
+    
+    @Benchmark
+    public OrderDto createOrder(RoundTrips roundTrips) {
+        OrderDto order = new OrderDto();
+        order.setCustomerId(customerId);
+        List<OrderDto.OrderItemDto> items = new ArrayList<>(itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            OrderDto.OrderItemDto item = new OrderDto.OrderItemDto();
+            item.setProductId(productIds.get(next++ % PRODUCTS));
+            item.setQuantity(1);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        int before = SqlStatementCounter.current();
+        OrderDto created = orderService.createOrder(order);
+        roundTrips.statements += SqlStatementCounter.current() - before;
+        roundTrips.orders++;
+        return created;
+    }
+}
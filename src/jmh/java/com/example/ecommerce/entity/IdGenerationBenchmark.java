@@ -0,0 +1,106 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Import throughput before and after the switch to pooled sequences: the same rows persisted in
+ * one transaction with IDENTITY ids (one INSERT round trip per row, batching disabled) and with
+ * {@link PooledSequenceIdGenerator} ids (batched inserts, one sequence call per 50 rows). Runs a
+ * bare Hibernate session factory on H2 in PostgreSQL mode so only id generation differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class IdGenerationBenchmark {
+    
+    private static final int ROWS = 1000;
+    
+    @Param({"identity", "pooled"})
+    String ids;
+    
+    private SessionFactory sessionFactory;
+    private Supplier<Object> newRow;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledRow.class)
+                .setProperty("hibernate.connection.url",
+                        "jdbc:h2:mem:idgeneration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty(PooledSequenceIdGenerator.ALLOCATION_SIZE_PREFIX + "default", "50")
+                .buildSessionFactory();
+        newRow = "identity".equals(ids) ? IdentityRow::new : PooledRow::new;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void importRows() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(newRow.get());
+            }
+            session.getTransaction().commit();
+        }
+    }
+    
+    @Entity(name = "IdentityRow")
+    @Table(name = "bench_identity_rows")
+    public static class IdentityRow {
+        
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        
+        @Column(nullable = false)
+        String name = "Imported product";
+        
+        @Column(nullable = false, precision = 10, scale = 2)
+        BigDecimal price = new BigDecimal("9.99");
+    }
+    
+    @Entity(name = "PooledRow")
+    @Table(name = "bench_pooled_rows")
+    public static class PooledRow {
+        
+        @Id
+        @GeneratedValue(generator = "bench_pooled_rows_id")
+        @GenericGenerator(name = "bench_pooled_rows_id", type = PooledSequenceIdGenerator.class,
+                parameters = @Parameter(name = "sequence_name", value = "bench_pooled_rows_seq"))
+        Long id;
+        
+        @Column(nullable = false)
+        String name = "Imported product";
+        
+        @Column(nullable = false, precision = 10, scale = 2)
+        BigDecimal price = new BigDecimal("9.99");
+    }
+}
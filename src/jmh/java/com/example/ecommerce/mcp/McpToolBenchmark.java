@@ -0,0 +1,86 @@
+package com.example.ecommerce.mcp;
+
+import com.example.ecommerce.admission.AdmissionControl;
+import com.example.ecommerce.admission.AdmissionProperties;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool dispatch overhead without a database: argument parsing, the {@link McpToolInvoker}
+ * wrapper (admission control, metrics, JFR event, response sizing) and serializing a typical
+ * list response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class McpToolBenchmark {
+    
+    @Param({"1", "10", "50"})
+    int items;
+    
+    private EcommerceMcpServer mcpServer;
+    private McpToolInvoker toolInvoker;
+    private ObjectMapper objectMapper;
+    
+    private String orderItemsArgument;
+    private Map<String, Object> productsResponse;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        toolInvoker = new McpToolInvoker(meterRegistry, objectMapper,
+                new AdmissionControl(new AdmissionProperties(), meterRegistry));
+        mcpServer = new EcommerceMcpServer(null, null, null, null, null, toolInvoker);
+        
+        StringJoiner joiner = new StringJoiner(",");
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            joiner.add((i + 1) + ":" + (i % 5 + 1));
+            
+            ProductDto product = new ProductDto();
+            product.setId((long) i + 1);
+            product.setName("Product " + i);
+            product.setDescription("Benchmark product number " + i);
+            product.setPrice(new BigDecimal("19.99"));
+            product.setCategory("Electronics");
+            product.setSku("SKU-" + i);
+            product.setStockQuantity(100);
+            product.setCreatedAt(LocalDateTime.now());
+            products.add(product);
+        }
+        orderItemsArgument = joiner.toString();
+        productsResponse = Map.of(
+            "success", true,
+            "products", products,
+            "count", products.size()
+        );
+    }
+    
+    @Benchmark
+    public List<OrderDto.OrderItemDto> parseOrderItems() {
+        return mcpServer.parseOrderItems(orderItemsArgument);
+    }
+    
+    @Benchmark
+    public Map<String, Object> invokeTool() {
+        return toolInvoker.invoke("get_products", "get products", () -> productsResponse);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(productsResponse);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.EcommerceMcpDemoApplication;
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Listing 100k customers as managed entities mapped to DTOs versus the constructor projection
+ * with the nested address. Run with the gc profiler ({@code gc.alloc.rate.norm} is bytes
+ * allocated per listing) to compare allocation alongside latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CustomerListingBenchmark {
+    
+    private static final int CUSTOMERS = 100_000;
+    // Far above anything the pooled sequence hands out during startup
+    private static final long FIRST_ID = 10_000_000L;
+    
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerRepository customerRepository;
+    private TransactionTemplate readOnly;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(EcommerceMcpDemoApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setAdditionalProfiles("h2");
+        application.setDefaultProperties(Map.of("spring.ai.openai.api-key", "unused"));
+        context = application.run();
+        
+        customerService = context.getBean(CustomerService.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(CUSTOMERS);
+        for (long id = FIRST_ID; id < FIRST_ID + CUSTOMERS; id++) {
+            rows.add(new Object[] {id, "First" + id, "Last" + id, "customer" + id + "@example.com", "+1-555-0100",
+                    id + " Main St", "New York", "NY", "10001", "USA", createdAt});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO customers (id, first_name, last_name, email, phone, street, city, state, zip_code, "
+                        + "country, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<CustomerDto> entities() {
+        return readOnly.execute(status -> customerRepository.findAll().stream()
+                .map(customerService::mapToDto)
+                .collect(Collectors.toList()));
+    }
+    
+    @Benchmark
+    public List<CustomerDto> projection() {
+        return customerService.getAllCustomers();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.entity.Customer;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+    
+    @Param({"1", "10", "100"})
+    int orderItems;
+    
+    private ProductService productService;
+    private CustomerService customerService;
+    private OrderService orderService;
+    
+    private Product product;
+    private Customer customer;
+    private Order order;
+    
+    @Setup
+    public void setUp() {
+        // Mappers do not touch collaborators, so the services are built without them
+        productService = new ProductService(null, null, null, null, null);
+        customerService = new CustomerService(null, null, null);
+        orderService = new OrderService(null, null, null, null, null, null, null, null, null);
+        
+        product = new Product();
+        product.setId(42L);
+        product.setName("MacBook Pro");
+        product.setDescription("Apple MacBook Pro 16-inch");
+        product.setPrice(new BigDecimal("2499.99"));
+        product.setCategory("Electronics");
+        product.setSku("MBP-16-001");
+        product.setStockQuantity(10);
+        product.setCreatedAt(LocalDateTime.now());
+        
+        customer = new Customer();
+        customer.setId(7L);
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setPhone("+1-555-0123");
+        customer.setAddress(new Customer.Address("123 Main St", "New York", "NY", "10001", "USA"));
+        customer.setCreatedAt(LocalDateTime.now());
+        
+        order = new Order();
+        order.setId(1000L);
+        order.setOrderNumber("ORD-1");
+        order.setCustomer(customer);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setOrderItems(new ArrayList<>());
+        for (int i = 0; i < orderItems; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i);
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(2);
+            item.setUnitPrice(product.getPrice());
+            item.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(2)));
+            order.getOrderItems().add(item);
+        }
+        order.setTotalAmount(product.getPrice().multiply(BigDecimal.valueOf(2L * orderItems)));
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    @Benchmark
+    public ProductDto productMapToDto() {
+        return productService.mapToDto(product);
+    }
+    
+    @Benchmark
+    public CustomerDto customerMapToDto() {
+        return customerService.mapToDto(customer);
+    }
+    
+    @Benchmark
+    public OrderDto orderMapToDto() {
+        return orderService.mapToDto(order);
+    }
+}
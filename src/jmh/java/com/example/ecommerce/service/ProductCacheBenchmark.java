@@ -0,0 +1,140 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.EcommerceMcpDemoApplication;
+import com.example.ecommerce.config.CacheConfiguration;
+import com.example.ecommerce.dto.ProductDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hit ratio of the product by-id cache (10k entries by default) in front of 100k products, for
+ * uniform and Zipf-skewed reads, with and without writes evicting entries. The {@code hits} and
+ * {@code misses} counters give the ratio; the score shows what a miss costs against the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class ProductCacheBenchmark {
+    
+    private static final int PRODUCTS = 100_000;
+    private static final long FIRST_ID = 10_000_000L;
+    private static final int SAMPLES = 1 << 20;
+    
+    @Param({"uniform", "zipf"})
+    String distribution;
+    
+    // Evictions per 1000 reads, as from stock changes
+    @Param({"0", "10"})
+    int writesPerThousand;
+    
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private Cache<Object, Object> byId;
+    private long[] keys;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(EcommerceMcpDemoApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setAdditionalProfiles("h2");
+        application.setDefaultProperties(Map.of("spring.ai.openai.api-key", "unused"));
+        context = application.run();
+        productService = context.getBean(ProductService.class);
+        TransactionAwareCacheDecorator decorator = (TransactionAwareCacheDecorator) context.getBean(CacheManager.class)
+                .getCache(CacheConfiguration.PRODUCTS_BY_ID);
+        byId = ((CaffeineCache) decorator.getTargetCache()).getNativeCache();
+        
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (long id = FIRST_ID; id < FIRST_ID + PRODUCTS; id++) {
+            rows.add(new Object[] {id, "Product " + id, 9.99, "Benchmark", sku(id), 100, 0L, createdAt});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO products (id, name, price, category, sku, "
+                + "stock_quantity, version, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        
+        keys = new long[SAMPLES];
+        double[] cumulative = "zipf".equals(distribution) ? zipfCumulative() : null;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES; i++) {
+            keys[i] = FIRST_ID + (cumulative == null ? random.nextInt(PRODUCTS) : rank(cumulative, random.nextDouble()));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lookups {
+        
+        public long hits;
+        public long misses;
+        int next = ThreadLocalRandom.current().nextInt(SAMPLES);
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+    
+    @Benchmark
+    public ProductDto getProductById(Lookups lookups) {
+        long id = keys[lookups.next++ & (SAMPLES - 1)];
+        if (writesPerThousand > 0 && ThreadLocalRandom.current().nextInt(1000) < writesPerThousand) {
+            productService.evictFromCache(id, sku(id));
+        }
+        // asMap() reads do not count as cache hits or touch the eviction policy
+        if (byId.asMap().containsKey(id)) {
+            lookups.hits++;
+        } else {
+            lookups.misses++;
+        }
+        return productService.getProductById(id);
+    }
+    
+    private static String sku(long id) {
+        return "CACHE-BENCH-" + id;
+    }
+    
+    // Zipf(s = 1) over product ranks: a few products get most of the reads
+    private static double[] zipfCumulative() {
+        double[] cumulative = new double[PRODUCTS];
+        double sum = 0;
+        for (int rank = 0; rank < PRODUCTS; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < PRODUCTS; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+    
+    private static int rank(double[] cumulative, double u) {
+        int index = Arrays.binarySearch(cumulative, u);
+        return Math.min(PRODUCTS - 1, index >= 0 ? index : -index - 1);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ecommerce.service.catalog;
+
+import com.example.ecommerce.dto.ProductDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogSnapshotBenchmark {
+    
+    private static final String[] CATEGORIES = {
+        "Electronics", "Books", "Clothing", "Home", "Garden", "Toys", "Sports", "Beauty",
+        "Grocery", "Automotive", "Music", "Office", "Pets", "Health", "Tools", "Jewelry"
+    };
+    
+    @Param({"100000", "1000000"})
+    int products;
+    
+    private CatalogSnapshot snapshot;
+    
+    @Setup
+    public void setUp() {
+        // Loaded directly, so the snapshot is built without a repository or invalidation bus
+        snapshot = new CatalogSnapshot(null, null, null, false, 10000, 100);
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<ProductDto> batch = new ArrayList<>(10000);
+        for (long id = 1; id <= products; id++) {
+            batch.add(new ProductDto(id, "Product " + id, "Description of product " + id,
+                    BigDecimal.valueOf(id % 100000, 2), CATEGORIES[(int) (id % CATEGORIES.length)],
+                    "SKU-" + id, (int) (id % 500), createdAt));
+            if (batch.size() == 10000) {
+                snapshot.replaceAll(batch);
+                batch.clear();
+            }
+        }
+        snapshot.replaceAll(batch);
+    }
+    
+    @Benchmark
+    public Object findById(Footprint footprint) {
+        return snapshot.findById(ThreadLocalRandom.current().nextLong(1, products + 1));
+    }
+    
+    @Benchmark
+    public Object findBySku(Footprint footprint) {
+        return snapshot.findBySku("SKU-" + ThreadLocalRandom.current().nextLong(1, products + 1));
+    }
+    
+    @Benchmark
+    public Object findPage(Footprint footprint) {
+        return snapshot.findAfter(ThreadLocalRandom.current().nextLong(products), 50);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object findByCategory(Footprint footprint) {
+        return snapshot.findByCategory(CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)]);
+    }
+    
+    /**
+     * The snapshot's estimated heap, reported next to each benchmark's score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        
+        public long heapMegabytes;
+        public long heapBytesPerProduct;
+        
+        @Setup(Level.Iteration)
+        public void measure(CatalogSnapshotBenchmark benchmark) {
+            long heapBytes = benchmark.snapshot.estimatedHeapBytes();
+            heapMegabytes = heapBytes >> 20;
+            heapBytesPerProduct = heapBytes / benchmark.snapshot.size();
+        }
+    }
+}
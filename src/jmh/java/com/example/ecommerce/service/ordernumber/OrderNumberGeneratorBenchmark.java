@@ -0,0 +1,52 @@
+package com.example.ecommerce.service.ordernumber;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order number throughput under contention: the lock-free snowflake generator against the hi/lo
+ * sequence generator (H2 sequence in PostgreSQL mode; block size 1 is one round trip per number).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class OrderNumberGeneratorBenchmark {
+    
+    @Param({"snowflake", "sequence-1", "sequence-100"})
+    String generator;
+    
+    private SingleConnectionDataSource dataSource;
+    private OrderNumberGenerator orderNumbers;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("snowflake".equals(generator)) {
+            orderNumbers = new SnowflakeOrderNumberGenerator(1);
+            return;
+        }
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:ordernumbers;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1");
+        int blockSize = Integer.parseInt(generator.substring("sequence-".length()));
+        orderNumbers = new SequenceHiLoOrderNumberGenerator(jdbcTemplate, "order_number_seq", blockSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+    
+    @Benchmark
+    public String nextOrderNumber() {
+        return orderNumbers.nextOrderNumber();
+    }
+}
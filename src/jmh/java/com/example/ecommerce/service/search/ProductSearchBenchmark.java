@@ -0,0 +1,106 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.EcommerceMcpDemoApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of one page (20 ids) of a name search. SampleTime mode reports p50/p99
+ * per catalog size. {@code postgres} runs the pg_trgm GiST query against a PostgreSQL container
+ * migrated by Flyway (needs Docker); {@code memory} is the in-process trigram index.
+ * Names are "<adjective> <noun> <n>", so a noun query matches a tenth of the catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+    
+    private static final String[] ADJECTIVES = {
+        "wireless", "compact", "premium", "portable", "classic", "smart", "rugged", "slim", "deluxe", "basic"
+    };
+    private static final String[] NOUNS = {
+        "laptop", "phone", "tablet", "monitor", "keyboard", "mouse", "camera", "speaker", "charger", "cable"
+    };
+    private static final int PAGE = 20;
+    
+    @Param({"10000", "100000", "1000000"})
+    int products;
+    
+    @Param({"memory", "postgres"})
+    String engine;
+    
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private ProductSearchEngine searchEngine;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("memory".equals(engine)) {
+            InMemoryProductSearchEngine memory = new InMemoryProductSearchEngine(null);
+            for (long id = 1; id <= products; id++) {
+                memory.onProductSaved(id, name(id));
+            }
+            searchEngine = memory;
+            return;
+        }
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        SpringApplication application = new SpringApplication(EcommerceMcpDemoApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+                "spring.ai.openai.api-key", "unused",
+                "spring.jpa.show-sql", "false",
+                "ecommerce.orders.node-id", "0",
+                "spring.datasource.url", postgres.getJdbcUrl(),
+                "spring.datasource.username", postgres.getUsername(),
+                "spring.datasource.password", postgres.getPassword()));
+        context = application.run();
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Same names as name(id), generated server side
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category, sku, stock_quantity, version, created_at) " +
+                "SELECT g, (?::text[])[1 + (g / 10) % 10] || ' ' || (?::text[])[1 + g % 10] || ' ' || g, " +
+                "9.99, 'Benchmark', 'SKU-' || g, 100, 0, now() FROM generate_series(1, ?) g",
+                "{" + String.join(",", ADJECTIVES) + "}", "{" + String.join(",", NOUNS) + "}", products);
+        jdbcTemplate.execute("ANALYZE products");
+        searchEngine = context.getBean(ProductSearchEngine.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+    
+    @Benchmark
+    public List<Long> searchNoun() {
+        return searchEngine.search(NOUNS[ThreadLocalRandom.current().nextInt(NOUNS.length)], 0, PAGE);
+    }
+    
+    @Benchmark
+    public List<Long> searchPhrase() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return searchEngine.search(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                + NOUNS[random.nextInt(NOUNS.length)], 0, PAGE);
+    }
+    
+    private static String name(long id) {
+        return ADJECTIVES[(int) (id / 10 % 10)] + " " + NOUNS[(int) (id % 10)] + " " + id;
+    }
+}
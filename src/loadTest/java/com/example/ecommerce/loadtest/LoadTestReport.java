@@ -0,0 +1,110 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes one run as JSON (stable key order, so two reports diff cleanly) plus the full
+ * HdrHistogram percentile distribution per operation.
+ */
+class LoadTestReport {
+    
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+    
+    private static final double NANOS_PER_MICRO = 1000.0;
+    
+    private final LoadTestSettings settings;
+    private final Instant startedAt;
+    private final Map<String, Object> operations = new LinkedHashMap<>();
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Histogram total = new Histogram(3);
+    private long totalErrors;
+    private long totalShed;
+    private long scheduled;
+    private long unfinished;
+    
+    LoadTestReport(LoadTestSettings settings, Instant startedAt) {
+        this.settings = settings;
+        this.startedAt = startedAt;
+    }
+    
+    void addOperation(Operation operation, Histogram latencies, long errors, long shed) {
+        operations.put(operation.getReportName(), summary(latencies, errors, shed));
+        histograms.put(operation.getReportName(), latencies);
+        total.add(latencies);
+        totalErrors += errors;
+        totalShed += shed;
+    }
+    
+    void setScheduled(long scheduled, long unfinished) {
+        this.scheduled = scheduled;
+        this.unfinished = unfinished;
+    }
+    
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String runId = RUN_ID.format(startedAt);
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("runId", runId);
+        report.put("settings", settings);
+        report.put("scheduledOperations", scheduled);
+        report.put("unfinishedOperations", unfinished);
+        report.put("total", summary(total, totalErrors, totalShed));
+        report.put("operations", operations);
+        
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path json = directory.resolve("loadtest-" + runId + ".json");
+        objectMapper.writeValue(json.toFile(), report);
+        Files.copy(json, directory.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        
+        try (PrintStream out = new PrintStream(directory.resolve("loadtest-" + runId + ".hgrm").toFile())) {
+            histograms.forEach((name, histogram) -> {
+                out.println("# " + name + " (microseconds)");
+                histogram.outputPercentileDistribution(out, NANOS_PER_MICRO);
+                out.println();
+            });
+        }
+        return json;
+    }
+    
+    private Map<String, Object> summary(Histogram latencies, long errors, long shed) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("succeeded", latencies.getTotalCount());
+        summary.put("errors", errors);
+        // Rejected up front by admission control (MCP retryAfterMs or HTTP 503)
+        summary.put("shed", shed);
+        summary.put("throughputPerSecond", round(latencies.getTotalCount() / (double) settings.getDurationSeconds()));
+        
+        Map<String, Object> micros = new LinkedHashMap<>();
+        micros.put("mean", round(latencies.getMean() / NANOS_PER_MICRO));
+        micros.put("p50", micros(latencies, 50.0));
+        micros.put("p90", micros(latencies, 90.0));
+        micros.put("p99", micros(latencies, 99.0));
+        micros.put("p99.9", micros(latencies, 99.9));
+        micros.put("max", round(latencies.getMaxValue() / NANOS_PER_MICRO));
+        summary.put("latencyMicros", micros);
+        return summary;
+    }
+    
+    private static double micros(Histogram latencies, double percentile) {
+        return round(latencies.getValueAtPercentile(percentile) / NANOS_PER_MICRO);
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
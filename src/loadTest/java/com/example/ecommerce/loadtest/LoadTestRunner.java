@@ -0,0 +1,236 @@
+package com.example.ecommerce.loadtest;
+
+import com.example.ecommerce.EcommerceMcpDemoApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: boots the application in-process (H2 or a Testcontainers
+ * PostgreSQL), then issues operations at Poisson-distributed arrival times regardless of how
+ * fast earlier ones complete. Latency is measured from the scheduled arrival time, so queueing
+ * behind a saturated instance shows up in the percentiles instead of lowering the offered load.
+ * With {@code loadTest.clients} set it runs a closed model instead: a fixed number of concurrent
+ * clients, e.g. to compare platform and virtual request threads at 100, 1k and 10k clients.
+ */
+@Slf4j
+public class LoadTestRunner {
+    
+    private static final String POSTGRES_IMAGE = "postgres:16-alpine";
+    private static final String APP_PROPERTY_PREFIX = "loadTest.app.";
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        Path reportDirectory = Path.of(System.getProperty("loadTest.reportDir", "build/reports/loadtest"));
+        // -PloadTest.app.<property>=<value> overrides an application property for this run
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APP_PROPERTY_PREFIX))
+                .forEach(name -> System.setProperty(name.substring(APP_PROPERTY_PREFIX.length()), System.getProperty(name)));
+        
+        PostgreSQLContainer<?> postgres = null;
+        ConfigurableApplicationContext context = null;
+        try {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("server.port", 0);
+            properties.put("spring.ai.openai.api-key", "unused");
+            
+            SpringApplication application = new SpringApplication(EcommerceMcpDemoApplication.class);
+            application.setWebApplicationType(WebApplicationType.SERVLET);
+            if ("postgres".equalsIgnoreCase(settings.getDatabase())) {
+                postgres = new PostgreSQLContainer<>(POSTGRES_IMAGE);
+                postgres.start();
+                properties.put("spring.datasource.url", postgres.getJdbcUrl());
+                properties.put("spring.datasource.username", postgres.getUsername());
+                properties.put("spring.datasource.password", postgres.getPassword());
+            } else {
+                application.setAdditionalProfiles("h2");
+            }
+            application.setDefaultProperties(properties);
+            context = application.run();
+            
+            Workload workload = new Workload(settings, context);
+            LoadTestReport report = run(settings, workload);
+            Path written = report.write(reportDirectory);
+            log.info("Load test report written to {}", written.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+        System.exit(0);
+    }
+    
+    static LoadTestReport run(LoadTestSettings settings, Workload workload) throws InterruptedException {
+        Measurements measurements = new Measurements(settings);
+        Instant startedAt = Instant.now();
+        if (settings.getClients() > 0) {
+            runClosed(settings, workload, measurements);
+        } else {
+            runOpen(settings, workload, measurements);
+        }
+        
+        LoadTestReport report = new LoadTestReport(settings, startedAt);
+        measurements.recorders.forEach((operation, recorder) ->
+                report.addOperation(operation, recorder.getIntervalHistogram(),
+                        measurements.errors.get(operation).sum(), measurements.shed.get(operation).sum()));
+        report.setScheduled(measurements.scheduled.get(), measurements.scheduled.get() - measurements.completed.get());
+        return report;
+    }
+    
+    private static void runOpen(LoadTestSettings settings, Workload workload, Measurements measurements)
+            throws InterruptedException {
+        Random random = new Random(settings.getSeed());
+        // Unbounded on purpose: in an open model the generator never waits for the system under test
+        ExecutorService executor = Executors.newCachedThreadPool();
+        
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+        log.info("Offering {} ops/s for {}s after {}s warm-up, mix {}", settings.getRate(),
+                settings.getDurationSeconds(), settings.getWarmupSeconds(), settings.getMix());
+        
+        double next = start;
+        while (next < end) {
+            long intended = (long) next;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            Operation operation = measurements.pick(random.nextInt(measurements.totalWeight));
+            long argumentSeed = random.nextLong();
+            boolean measured = intended >= measureFrom;
+            if (measured) {
+                measurements.scheduled.incrementAndGet();
+            }
+            
+            executor.execute(() -> {
+                Workload.Outcome outcome = workload.execute(operation, new SplittableRandom(argumentSeed));
+                if (measured) {
+                    measurements.record(operation, outcome, System.nanoTime() - intended);
+                }
+            });
+            
+            // Exponential inter-arrival times give a Poisson arrival process
+            next += -Math.log(1.0 - random.nextDouble()) * meanGapNanos;
+        }
+        
+        executor.shutdown();
+        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+            log.warn("Operations still in flight after 60s; they are reported as unfinished");
+        }
+        executor.shutdownNow();
+    }
+    
+    // Each client waits for its own response, so latency is measured from the actual send
+    private static void runClosed(LoadTestSettings settings, Workload workload, Measurements measurements)
+            throws InterruptedException {
+        ExecutorService executor = clientExecutor(settings.getClients());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+        log.info("Running {} closed-loop clients for {}s after {}s warm-up, mix {}", settings.getClients(),
+                settings.getDurationSeconds(), settings.getWarmupSeconds(), settings.getMix());
+        
+        for (int client = 0; client < settings.getClients(); client++) {
+            SplittableRandom random = new SplittableRandom(settings.getSeed() + client);
+            executor.execute(() -> {
+                long began;
+                while ((began = System.nanoTime()) < end) {
+                    Operation operation = measurements.pick(random.nextInt(measurements.totalWeight));
+                    boolean measured = began >= measureFrom;
+                    if (measured) {
+                        measurements.scheduled.incrementAndGet();
+                    }
+                    Workload.Outcome outcome = workload.execute(operation, random.split());
+                    if (measured) {
+                        measurements.record(operation, outcome, System.nanoTime() - began);
+                    }
+                }
+            });
+        }
+        
+        executor.shutdown();
+        if (!executor.awaitTermination(settings.getWarmupSeconds() + settings.getDurationSeconds() + 60L,
+                TimeUnit.SECONDS)) {
+            log.warn("Clients still waiting for responses 60s after the run; they are reported as unfinished");
+        }
+        executor.shutdownNow();
+    }
+    
+    // One virtual thread per client on Java 21+, so 10k clients do not need 10k platform threads
+    private static ExecutorService clientExecutor(int clients) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads unavailable, using {} platform threads for the clients", clients);
+            return Executors.newFixedThreadPool(clients);
+        }
+    }
+    
+    private static class Measurements {
+        
+        final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        final Map<Operation, LongAdder> shed = new EnumMap<>(Operation.class);
+        final AtomicLong scheduled = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final Operation[] operations;
+        final int[] cumulativeWeights;
+        final int totalWeight;
+        
+        Measurements(LoadTestSettings settings) {
+            settings.getMix().keySet().forEach(operation -> {
+                recorders.put(operation, new Recorder(3));
+                errors.put(operation, new LongAdder());
+                shed.put(operation, new LongAdder());
+            });
+            operations = settings.getMix().keySet().toArray(new Operation[0]);
+            cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += settings.getMix().get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+            totalWeight = total;
+        }
+        
+        Operation pick(int roll) {
+            int index = 0;
+            while (cumulativeWeights[index] <= roll) {
+                index++;
+            }
+            return operations[index];
+        }
+        
+        void record(Operation operation, Workload.Outcome outcome, long latencyNanos) {
+            switch (outcome) {
+                case SUCCESS -> recorders.get(operation).recordValue(latencyNanos);
+                case SHED -> shed.get(operation).increment();
+                case ERROR -> errors.get(operation).increment();
+            }
+            completed.incrementAndGet();
+        }
+    }
+}
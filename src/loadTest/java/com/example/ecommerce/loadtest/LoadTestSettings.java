@@ -0,0 +1,71 @@
+package com.example.ecommerce.loadtest;
+
+import lombok.Value;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadTest.*} system properties (the Gradle task maps
+ * {@code -PloadTest.*} project properties onto them).
+ */
+@Value
+public class LoadTestSettings {
+    
+    static final String DEFAULT_MIX = "create_order=20,get_product=40,get_customer=30,update_order_status=10";
+    
+    /** {@code h2} (in-memory) or {@code postgres} (Testcontainers) */
+    String database;
+    /** Target arrival rate in operations per second, independent of response times */
+    double rate;
+    /**
+     * Closed model instead: this many clients each issue their next operation as soon as the
+     * previous one completes. 0 keeps the open model at {@link #rate}.
+     */
+    int clients;
+    int warmupSeconds;
+    int durationSeconds;
+    /** Relative weights per operation */
+    Map<Operation, Integer> mix;
+    /** Seed for arrivals, the operation mix and arguments; the same seed replays the same schedule */
+    long seed;
+    int products;
+    int customers;
+    int itemsPerOrder;
+    
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                property("database", "h2"),
+                Double.parseDouble(property("rate", "200")),
+                Integer.parseInt(property("clients", "0")),
+                Integer.parseInt(property("warmup", "10")),
+                Integer.parseInt(property("duration", "60")),
+                parseMix(property("mix", DEFAULT_MIX)),
+                Long.parseLong(property("seed", "42")),
+                Integer.parseInt(property("products", "1000")),
+                Integer.parseInt(property("customers", "200")),
+                Integer.parseInt(property("itemsPerOrder", "3")));
+    }
+    
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected operation=weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix must contain at least one positive weight");
+        }
+        return weights;
+    }
+    
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+}
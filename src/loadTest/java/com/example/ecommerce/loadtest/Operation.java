@@ -0,0 +1,33 @@
+package com.example.ecommerce.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Operations the load test can replay: MCP tools are invoked on the tool bean in-process,
+ * REST calls go over HTTP to the embedded server.
+ */
+public enum Operation {
+    
+    CREATE_ORDER("create_order"),
+    GET_PRODUCT("get_product"),
+    GET_PRODUCT_HTTP("get_product_http"),
+    GET_CUSTOMER("get_customer"),
+    UPDATE_ORDER_STATUS("update_order_status");
+    
+    private final String reportName;
+    
+    Operation(String reportName) {
+        this.reportName = reportName;
+    }
+    
+    public String getReportName() {
+        return reportName;
+    }
+    
+    static Operation fromName(String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.reportName.equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load test operation: " + name));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ecommerce.loadtest;
+
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.mcp.EcommerceMcpServer;
+import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.imports.BulkImportService;
+import com.example.ecommerce.service.imports.ImportFormat;
+import com.example.ecommerce.service.imports.ImportReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+
+/**
+ * Seeds the catalog and customers, then executes single operations with arguments drawn from
+ * the seeded data.
+ */
+@Slf4j
+class Workload {
+    
+    private static final String[] WORDS = {
+        "laptop", "phone", "tablet", "monitor", "keyboard", "mouse", "camera", "speaker", "charger", "cable"
+    };
+    
+    private static final String[] STATUSES = {"CONFIRMED", "SHIPPED", "DELIVERED"};
+    
+    private static final int PAGE = 1000;
+    
+    private final LoadTestSettings settings;
+    private final EcommerceMcpServer mcpServer;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<Long> orderIds = Collections.synchronizedList(new ArrayList<>());
+    
+    enum Outcome {
+        SUCCESS, ERROR, SHED
+    }
+    
+    Workload(LoadTestSettings settings, ConfigurableApplicationContext context) {
+        this.settings = settings;
+        this.mcpServer = context.getBean(EcommerceMcpServer.class);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        seed(context);
+    }
+    
+    private void seed(ConfigurableApplicationContext context) {
+        BulkImportService importService = context.getBean(BulkImportService.class);
+        
+        StringBuilder products = new StringBuilder("name,description,price,category,sku,stockQuantity\n");
+        for (int i = 0; i < settings.getProducts(); i++) {
+            String word = WORDS[i % WORDS.length];
+            products.append("Load test ").append(word).append(' ').append(i)
+                    .append(",Seeded ").append(word).append(",19.99,").append(word)
+                    .append(",LT-").append(i).append(',').append(Integer.MAX_VALUE).append('\n');
+        }
+        report("products", importService.importProducts(stream(products), ImportFormat.CSV));
+        
+        StringBuilder customers = new StringBuilder("firstName,lastName,email,phone,street,city,state,zipCode,country\n");
+        for (int i = 0; i < settings.getCustomers(); i++) {
+            customers.append("Load,Tester").append(i).append(",load.tester").append(i).append("@example.com")
+                    .append(",+1-555-0100,1 Main St,New York,NY,10001,USA\n");
+        }
+        report("customers", importService.importCustomers(stream(customers), ImportFormat.CSV));
+        
+        ProductService productService = context.getBean(ProductService.class);
+        List<ProductDto> productPage;
+        Long after = null;
+        do {
+            productPage = productService.getProductsAfter(after, PAGE);
+            productPage.forEach(product -> productIds.add(product.getId()));
+            after = productPage.isEmpty() ? after : productPage.get(productPage.size() - 1).getId();
+        } while (productPage.size() == PAGE);
+        
+        CustomerService customerService = context.getBean(CustomerService.class);
+        List<CustomerDto> customerPage;
+        after = null;
+        do {
+            customerPage = customerService.getCustomersAfter(after, PAGE);
+            customerPage.forEach(customer -> customerIds.add(customer.getId()));
+            after = customerPage.isEmpty() ? after : customerPage.get(customerPage.size() - 1).getId();
+        } while (customerPage.size() == PAGE);
+        
+        if (productIds.isEmpty() || customerIds.isEmpty()) {
+            throw new IllegalStateException("Seeding produced no products or customers");
+        }
+        
+        // Status updates need existing orders before the first create_order completes
+        SplittableRandom random = new SplittableRandom(settings.getSeed());
+        for (int i = 0; i < Math.min(100, customerIds.size()); i++) {
+            execute(Operation.CREATE_ORDER, random);
+        }
+        log.info("Seeded {} products, {} customers and {} orders",
+                productIds.size(), customerIds.size(), orderIds.size());
+    }
+    
+    /**
+     * Runs one operation; failures are reported as an outcome rather than thrown.
+     */
+    Outcome execute(Operation operation, SplittableRandom random) {
+        try {
+            return switch (operation) {
+                case CREATE_ORDER -> createOrder(random);
+                case GET_PRODUCT -> outcome(mcpServer.getProduct(
+                        null, null, WORDS[random.nextInt(WORDS.length)], 20, null));
+                case GET_PRODUCT_HTTP -> getProductOverHttp(random);
+                case GET_CUSTOMER -> outcome(mcpServer.getCustomer(pick(customerIds, random), null));
+                case UPDATE_ORDER_STATUS -> updateOrderStatus(random);
+            };
+        } catch (Exception e) {
+            log.debug("Load test operation {} failed", operation, e);
+            return Outcome.ERROR;
+        }
+    }
+    
+    private Outcome createOrder(SplittableRandom random) {
+        StringJoiner items = new StringJoiner(",");
+        for (int i = 0; i < settings.getItemsPerOrder(); i++) {
+            items.add(pick(productIds, random) + ":1");
+        }
+        Map<String, Object> response = mcpServer.createOrder(pick(customerIds, random), items.toString(), null);
+        if (response.get("order") instanceof OrderDto order) {
+            orderIds.add(order.getId());
+        }
+        return outcome(response);
+    }
+    
+    private Outcome getProductOverHttp(SplittableRandom random) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + pick(productIds, random)))
+                .GET()
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        return httpOutcome(httpClient.send(request, HttpResponse.BodyHandlers.discarding()));
+    }
+    
+    private Outcome updateOrderStatus(SplittableRandom random) throws Exception {
+        Long orderId;
+        synchronized (orderIds) {
+            orderId = orderIds.get(random.nextInt(orderIds.size()));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        baseUrl + "/api/orders/" + orderId + "/status?status=" + STATUSES[random.nextInt(STATUSES.length)]))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        return httpOutcome(httpClient.send(request, HttpResponse.BodyHandlers.discarding()));
+    }
+    
+    private static Outcome httpOutcome(HttpResponse<Void> response) {
+        return switch (response.statusCode()) {
+            case 200 -> Outcome.SUCCESS;
+            case 503 -> Outcome.SHED;
+            default -> Outcome.ERROR;
+        };
+    }
+    
+    private static Outcome outcome(Map<String, Object> response) {
+        if (Boolean.TRUE.equals(response.get("success"))) {
+            return Outcome.SUCCESS;
+        }
+        // Admission control answered instead of running the tool
+        return response.containsKey("retryAfterMs") ? Outcome.SHED : Outcome.ERROR;
+    }
+    
+    private static Long pick(List<Long> ids, SplittableRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+    
+    private static ByteArrayInputStream stream(StringBuilder content) {
+        return new ByteArrayInputStream(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static void report(String what, ImportReport report) {
+        log.info("Imported {}: {}", what, report);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ecommerce.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD concurrency limit. Each completed call is a sample: a call that finished within the
+ * latency threshold grows the limit by {@code 1/limit} (about +1 per limit's worth of calls),
+ * but only while at least half the limit is in use; a slow call or an overload failure
+ * shrinks it by {@code backoffRatio}. The limit therefore settles just below the concurrency
+ * at which latency starts to climb, rather than at a fixed guess.
+ *
+ * <p>A limiter that does not back off on latency only shrinks on overload failures. Traffic
+ * class limiters are built that way: one slow tool would otherwise cut the budget of every
+ * other tool in its class, while its own limiter already holds it back.
+ */
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private static final long MIN_RETRY_AFTER_MILLIS = 10;
+    
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final boolean backOffOnLatency;
+    
+    private double limit;
+    private int inFlight;
+    private double smoothedLatencyNanos;
+    
+    public AdaptiveConcurrencyLimiter(String name, AdmissionProperties.Budget budget, boolean backOffOnLatency) {
+        this.name = name;
+        this.backOffOnLatency = backOffOnLatency;
+        this.minLimit = budget.getMinLimit();
+        this.maxLimit = budget.getMaxLimit();
+        this.backoffRatio = budget.getBackoffRatio();
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(budget.getLatencyThresholdMs());
+        this.limit = Math.max(minLimit, Math.min(maxLimit, budget.getInitialLimit()));
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+    
+    /**
+     * Releases a permit without feeding a sample, e.g. when another limiter rejected the call.
+     */
+    public synchronized void cancel() {
+        inFlight--;
+    }
+    
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        int inFlightDuringCall = inFlight;
+        inFlight--;
+        smoothedLatencyNanos = smoothedLatencyNanos == 0 ? latencyNanos
+                : smoothedLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+        
+        if (overloaded || (backOffOnLatency && latencyNanos > latencyThresholdNanos)) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlightDuringCall * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+    
+    /**
+     * Rough time until a slot frees up: the smoothed call latency.
+     */
+    public synchronized long retryAfterMillis() {
+        return Math.max(MIN_RETRY_AFTER_MILLIS, TimeUnit.NANOSECONDS.toMillis((long) smoothedLatencyNanos));
+    }
+    
+    public synchronized double getLimit() {
+        return limit;
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ecommerce.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admits a call only if both its own limiter (one per MCP tool or REST endpoint) and the
+ * limiter of its traffic class have room. Only the call's own limiter backs off when it is
+ * slow; the class limiter shrinks on overload failures alone. Rejection is immediate; callers get a retry-after
+ * hint instead of a queue slot, so an overloaded instance sheds work rather than letting
+ * latency grow for everyone.
+ */
+@Component
+public class AdmissionControl {
+    
+    private static final Permit UNLIMITED = (latencyNanos, failure) -> {
+    };
+    
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<TrafficClass, AdaptiveConcurrencyLimiter> classLimiters = new EnumMap<>(TrafficClass.class);
+    private final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            classLimiters.put(trafficClass, register(trafficClass.name().toLowerCase(), budget(trafficClass), false));
+        }
+    }
+    
+    public TrafficClass classifyTool(String tool) {
+        if (properties.getBulkTools().contains(tool)) {
+            return TrafficClass.BULK;
+        }
+        return properties.getWriteTools().contains(tool) ? TrafficClass.WRITE : TrafficClass.READ;
+    }
+    
+    /**
+     * @throws AdmissionRejectedException if either limiter is full
+     */
+    public Permit acquire(String name, TrafficClass trafficClass) {
+        if (!properties.isEnabled()) {
+            return UNLIMITED;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(name,
+                key -> register(key, budget(trafficClass), true));
+        AdaptiveConcurrencyLimiter classLimiter = classLimiters.get(trafficClass);
+        
+        if (!limiter.tryAcquire()) {
+            throw reject(limiter);
+        }
+        if (!classLimiter.tryAcquire()) {
+            limiter.cancel();
+            throw reject(classLimiter);
+        }
+        return (latencyNanos, failure) -> {
+            boolean overloaded = isOverload(failure);
+            limiter.release(latencyNanos, overloaded);
+            classLimiter.release(latencyNanos, overloaded);
+        };
+    }
+    
+    private AdmissionRejectedException reject(AdaptiveConcurrencyLimiter limiter) {
+        Counter.builder("admission.rejected")
+                .description("Calls rejected because a concurrency limit was reached")
+                .tag("limiter", limiter.getName())
+                .register(meterRegistry)
+                .increment();
+        return new AdmissionRejectedException(limiter.getName(), limiter.retryAfterMillis());
+    }
+    
+    private AdaptiveConcurrencyLimiter register(String name, AdmissionProperties.Budget budget,
+                                                boolean backOffOnLatency) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, budget, backOffOnLatency);
+        Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Admitted calls still running")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+    
+    private AdmissionProperties.Budget budget(TrafficClass trafficClass) {
+        if (trafficClass == TrafficClass.BULK) {
+            return properties.getBulk();
+        }
+        return trafficClass == TrafficClass.WRITE ? properties.getWrite() : properties.getRead();
+    }
+    
+    // Failures that mean the database is saturated rather than that the request was bad
+    private static boolean isOverload(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Must be released exactly once, with the call's latency and its failure (null on success).
+     */
+    @FunctionalInterface
+    public interface Permit {
+        void release(long latencyNanos, Throwable failure);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ecommerce.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies admission control per controller method: methods that take or produce NDJSON
+ * (imports and streamed lists) are bulk, other GET and HEAD requests count as reads, everything
+ * else as writes. Rejected requests get {@code 503} with a {@code Retry-After} header. For
+ * streamed (async) responses the permit is held until the stream completes.
+ */
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+    
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+    private static final String START_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".start";
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    private final AdmissionControl admissionControl;
+    private final Map<Method, Boolean> bulkMethods = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            // Not a controller call, or the async re-dispatch of one that was already admitted
+            return true;
+        }
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        try {
+            request.setAttribute(PERMIT_ATTRIBUTE, admissionControl.acquire(name, classify(request, handlerMethod)));
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            return true;
+        } catch (AdmissionRejectedException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (e.getRetryAfterMillis() + 999) / 1000)));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+            return false;
+        }
+    }
+    
+    private TrafficClass classify(HttpServletRequest request, HandlerMethod handlerMethod) {
+        if (bulkMethods.computeIfAbsent(handlerMethod.getMethod(), AdmissionInterceptor::isBulk)) {
+            return TrafficClass.BULK;
+        }
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        return read ? TrafficClass.READ : TrafficClass.WRITE;
+    }
+    
+    private static boolean isBulk(Method method) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        return mapping != null
+                && (Arrays.asList(mapping.consumes()).contains(NDJSON) || Arrays.asList(mapping.produces()).contains(NDJSON));
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Not called for the dispatch that starts async processing, only for the final one
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof AdmissionControl.Permit admitted) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            long start = (Long) request.getAttribute(START_ATTRIBUTE);
+            admitted.release(System.nanoTime() - start, ex);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Set;
+
+/**
+ * {@code ecommerce.admission.*}: adaptive concurrency limits for MCP tools and REST endpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.admission")
+public class AdmissionProperties {
+    
+    private boolean enabled = true;
+    
+    // MCP tools that count against the write budget; every other tool is a read unless it is bulk
+    private Set<String> writeTools = Set.of("create_customer", "create_product", "create_order");
+    
+    // MCP tools that count against the bulk budget. REST endpoints are bulk if they take or
+    // produce NDJSON (imports and streamed lists).
+    private Set<String> bulkTools = Set.of("import_products", "import_customers");
+    
+    private Budget read = new Budget(50, 4, 200, 250);
+    
+    private Budget write = new Budget(10, 1, 50, 1000);
+    
+    private Budget bulk = new Budget(4, 1, 16, 60000);
+    
+    /**
+     * Limits for one traffic class. The class as a whole and each tool or endpoint in it get
+     * their own limiter with these settings.
+     */
+    @Data
+    public static class Budget {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        // Calls slower than this count as a congestion signal
+        private long latencyThresholdMs;
+        // Multiplicative decrease applied on congestion
+        private double backoffRatio = 0.9;
+        
+        public Budget() {
+        }
+        
+        Budget(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThresholdMs = latencyThresholdMs;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ecommerce.admission;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of queueing when a limiter is at its current limit.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+    
+    private final String limiter;
+    private final long retryAfterMillis;
+    
+    public AdmissionRejectedException(String limiter, long retryAfterMillis) {
+        super("Concurrency limit reached for " + limiter + ", retry after " + retryAfterMillis + " ms");
+        this.limiter = limiter;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
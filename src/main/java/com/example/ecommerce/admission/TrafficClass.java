@@ -0,0 +1,11 @@
+package com.example.ecommerce.admission;
+
+/**
+ * Admission budgets. Reads and writes are limited separately so a burst of expensive writes
+ * cannot take the capacity that keeps cheap lookups fast. Bulk calls (imports and NDJSON
+ * streams) run for seconds by design, so they have a budget and latency threshold of their own
+ * instead of counting as slow reads or writes.
+ */
+public enum TrafficClass {
+    READ, WRITE, BULK
+}
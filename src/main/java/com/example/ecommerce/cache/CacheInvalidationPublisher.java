@@ -0,0 +1,80 @@
+package com.example.ecommerce.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes invalidations for entities written by the services. Inside a transaction all of its
+ * events are collected and sent together: on the transaction's own connection just before commit
+ * when the bus delivers on commit (PostgreSQL NOTIFY), otherwise after commit. Either way replicas
+ * never evict before the new data is visible and never evict for a rolled-back write.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationPublisher {
+    
+    private final InvalidationBus invalidationBus;
+    private final CacheNode cacheNode;
+    
+    public void publish(InvalidationEvent.EntityType entityType, Long id, String naturalKey) {
+        InvalidationEvent event = new InvalidationEvent(
+                cacheNode.getId(), entityType, id, naturalKey, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentBatch().events.add(event);
+        } else {
+            try {
+                invalidationBus.publish(List.of(event));
+            } catch (RuntimeException e) {
+                // Replicas fall back to cache TTL expiry for this entry
+                log.warn("Failed to publish cache invalidation {}", event, e);
+            }
+        }
+    }
+    
+    // Synchronizations are suspended with their transaction (REQUIRES_NEW), so each transaction gets its own batch
+    private Batch currentBatch() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Batch batch && batch.publisher() == this) {
+                return batch;
+            }
+        }
+        Batch batch = new Batch();
+        TransactionSynchronizationManager.registerSynchronization(batch);
+        return batch;
+    }
+    
+    private class Batch implements TransactionSynchronization {
+        
+        private final List<InvalidationEvent> events = new ArrayList<>();
+        
+        CacheInvalidationPublisher publisher() {
+            return CacheInvalidationPublisher.this;
+        }
+        
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // A failure here rolls the write back rather than leaving other replicas stale
+            if (invalidationBus.isTransactional()) {
+                invalidationBus.publish(events);
+            }
+        }
+        
+        @Override
+        public void afterCommit() {
+            if (!invalidationBus.isTransactional()) {
+                try {
+                    invalidationBus.publish(events);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to publish {} cache invalidations", events.size(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.config.CacheConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Evicts local cache entries named by invalidation events from other replicas. Events from
+ * this node are skipped because its own writes already evict through {@code @CacheEvict}.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationSubscriber {
+    
+    private final CacheManager cacheManager;
+    private final CacheNode cacheNode;
+    private final Timer propagationLag;
+    
+    public CacheInvalidationSubscriber(InvalidationBus invalidationBus, CacheManager cacheManager,
+                                       CacheNode cacheNode, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.cacheNode = cacheNode;
+        this.propagationLag = Timer.builder("cache.invalidation.lag")
+                .description("Time from commit on the publishing node to eviction on this node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        invalidationBus.subscribe(this::onEvent);
+    }
+    
+    void onEvent(InvalidationEvent event) {
+        if (cacheNode.getId().equals(event.getOrigin())) {
+            return;
+        }
+        if (event.getEntityType() == InvalidationEvent.EntityType.PRODUCT) {
+            evict(CacheConfiguration.PRODUCTS_BY_ID, event.getId());
+            evict(CacheConfiguration.PRODUCTS_BY_SKU, event.getNaturalKey());
+        }
+        propagationLag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.getPublishedAtMillis())));
+        log.debug("Applied cache invalidation {}", event);
+    }
+    
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            // Not inside a transaction here, so the transaction-aware cache evicts immediately
+            cache.evict(key);
+        }
+    }
+}
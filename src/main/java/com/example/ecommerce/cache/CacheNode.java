@@ -0,0 +1,16 @@
+package com.example.ecommerce.cache;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identifies this application instance as the origin of invalidation events.
+ */
+@Component
+@Getter
+public class CacheNode {
+    
+    private final String id = UUID.randomUUID().toString().substring(0, 8);
+}
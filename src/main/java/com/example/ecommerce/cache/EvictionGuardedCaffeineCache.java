@@ -0,0 +1,115 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caffeine cache that drops a {@code put} when the key was evicted after the caller's miss.
+ * <p>
+ * {@code @Cacheable} fills the cache in three steps: miss, load from the database, put. A reader
+ * that loaded a product before a writer committed would otherwise store the old stock after
+ * the writer's post-commit eviction and serve it until the entry expires. Each key hashes to a
+ * stripe whose generation is bumped on every eviction; the generation seen at the miss is kept
+ * per thread, and the put only goes through if it has not changed.
+ */
+public class EvictionGuardedCaffeineCache extends CaffeineCache {
+    
+    private static final int STRIPES = 64;
+    // Loads abandoned because the loader threw are never put; forget them past this many per thread
+    private static final int MAX_PENDING_LOADS = 128;
+    
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final Object[] locks = new Object[STRIPES];
+    private final ThreadLocal<Map<Object, Long>> pendingLoads = ThreadLocal.withInitial(HashMap::new);
+    
+    public EvictionGuardedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        super(name, cache, false);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value == null) {
+            Map<Object, Long> pending = pendingLoads.get();
+            if (pending.size() >= MAX_PENDING_LOADS) {
+                pending.clear();
+            }
+            pending.put(key, generations.get(stripe(key)));
+        }
+        return value;
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        Long missedAt = pendingLoads.get().remove(key);
+        if (missedAt == null) {
+            super.put(key, value);
+            return;
+        }
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            if (generations.get(stripe) == missedAt) {
+                super.put(key, value);
+            }
+        }
+    }
+    
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Long missedAt = pendingLoads.get().remove(key);
+        if (missedAt == null) {
+            return super.putIfAbsent(key, value);
+        }
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            if (generations.get(stripe) != missedAt) {
+                return get(key);
+            }
+            return super.putIfAbsent(key, value);
+        }
+    }
+    
+    @Override
+    public void evict(Object key) {
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            generations.incrementAndGet(stripe);
+            super.evict(key);
+        }
+    }
+    
+    @Override
+    public boolean evictIfPresent(Object key) {
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            generations.incrementAndGet(stripe);
+            return super.evictIfPresent(key);
+        }
+    }
+    
+    @Override
+    public void clear() {
+        invalidate();
+    }
+    
+    @Override
+    public boolean invalidate() {
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (locks[i]) {
+                generations.incrementAndGet(i);
+            }
+        }
+        return super.invalidate();
+    }
+    
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
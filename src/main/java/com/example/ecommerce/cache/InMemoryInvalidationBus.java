@@ -0,0 +1,35 @@
+package com.example.ecommerce.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events synchronously to every subscriber in the JVM. Subscribers are shared across
+ * all instances, so several application contexts started in one JVM behave like replicas.
+ */
+public class InMemoryInvalidationBus implements InvalidationBus {
+    
+    private static final List<Consumer<InvalidationEvent>> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+    
+    private final List<Consumer<InvalidationEvent>> ownSubscribers = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public void publish(List<InvalidationEvent> events) {
+        events.forEach(event -> SUBSCRIBERS.forEach(subscriber -> subscriber.accept(event)));
+    }
+    
+    @Override
+    public void subscribe(Consumer<InvalidationEvent> subscriber) {
+        ownSubscribers.add(subscriber);
+        SUBSCRIBERS.add(subscriber);
+    }
+    
+    /**
+     * Unregisters this instance's subscribers, e.g. when its application context closes.
+     */
+    public void close() {
+        SUBSCRIBERS.removeAll(ownSubscribers);
+        ownSubscribers.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.ecommerce.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts {@link InvalidationEvent}s to every application instance, including the sender.
+ */
+public interface InvalidationBus {
+    
+    /**
+     * Sends all events of one transaction together. Throws if they could not be handed over.
+     */
+    void publish(List<InvalidationEvent> events);
+    
+    void subscribe(Consumer<InvalidationEvent> subscriber);
+    
+    /**
+     * True if publishing on the current transaction's connection only delivers the events when it
+     * commits (PostgreSQL NOTIFY). Such buses are called before commit, others after.
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce.cache;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tells every replica that its cached copy of an entity is stale. Encoded as a short
+ * pipe-separated string; several events travel in one PostgreSQL NOTIFY payload, one per line.
+ */
+@Value
+public class InvalidationEvent {
+    
+    // Only entities that are cached somewhere; customers and orders are always read from the database
+    public enum EntityType {
+        PRODUCT
+    }
+    
+    String origin;
+    EntityType entityType;
+    Long id;
+    // SKU for products; the secondary cache key, may be null
+    String naturalKey;
+    long publishedAtMillis;
+    
+    public String encode() {
+        return String.join("|", origin, entityType.name(), String.valueOf(id),
+                String.valueOf(publishedAtMillis), naturalKey == null ? "" : naturalKey);
+    }
+    
+    public static InvalidationEvent decode(String payload) {
+        String[] parts = payload.split("\\|", 5);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed invalidation event: " + payload);
+        }
+        return new InvalidationEvent(parts[0], EntityType.valueOf(parts[1]), Long.valueOf(parts[2]),
+                parts[4].isEmpty() ? null : parts[4], Long.parseLong(parts[3]));
+    }
+    
+    /**
+     * Joins events into as few payloads as possible, each at most {@code maxBytes} long in UTF-8.
+     */
+    public static List<String> encodeAll(List<InvalidationEvent> events, int maxBytes) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder();
+        int payloadBytes = 0;
+        for (InvalidationEvent event : events) {
+            String encoded = event.encode();
+            int bytes = encoded.getBytes(StandardCharsets.UTF_8).length;
+            if (payloadBytes > 0 && payloadBytes + 1 + bytes > maxBytes) {
+                payloads.add(payload.toString());
+                payload.setLength(0);
+                payloadBytes = 0;
+            }
+            if (payloadBytes > 0) {
+                payload.append('\n');
+                payloadBytes++;
+            }
+            payload.append(encoded);
+            payloadBytes += bytes;
+        }
+        if (payloadBytes > 0) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+    
+    public static List<InvalidationEvent> decodeAll(String payload) {
+        List<InvalidationEvent> events = new ArrayList<>();
+        for (String line : payload.split("\n")) {
+            if (!line.isEmpty()) {
+                events.add(decode(line));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.ecommerce.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Uses PostgreSQL {@code LISTEN/NOTIFY}. Notifications are sent on the current transaction's
+ * connection, so PostgreSQL delivers them exactly when the write commits and drops them on
+ * rollback; without a transaction a pooled connection in auto-commit mode is used. A dedicated
+ * connection outside the pool listens on a daemon thread and reconnects after failures.
+ */
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus, SmartLifecycle {
+    
+    static final String CHANNEL = "cache_invalidation";
+    // NOTIFY payloads must stay under 8000 bytes
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    
+    private final DataSource dataSource;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final List<Consumer<InvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean running;
+    private Thread listenerThread;
+    
+    public PostgresInvalidationBus(DataSource dataSource, String url, String username, String password) {
+        this.dataSource = dataSource;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+    
+    @Override
+    public void publish(List<InvalidationEvent> events) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : InvalidationEvent.encodeAll(events, MAX_PAYLOAD_BYTES)) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to publish " + events.size() + " cache invalidations", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+    
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+    
+    @Override
+    public void subscribe(Consumer<InvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, reconnecting", e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+    
+    private void dispatch(String payload) {
+        try {
+            for (InvalidationEvent event : InvalidationEvent.decodeAll(payload)) {
+                subscribers.forEach(subscriber -> subscriber.accept(event));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring cache invalidation {}", payload, e);
+        }
+    }
+    
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
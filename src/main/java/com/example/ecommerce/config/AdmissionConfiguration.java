@@ -0,0 +1,23 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.admission.AdmissionControl;
+import com.example.ecommerce.admission.AdmissionInterceptor;
+import com.example.ecommerce.admission.AdmissionProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@RequiredArgsConstructor
+public class AdmissionConfiguration implements WebMvcConfigurer {
+    
+    private final AdmissionControl admissionControl;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl)).addPathPatterns("/api/**");
+    }
+}
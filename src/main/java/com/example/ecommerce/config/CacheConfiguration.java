@@ -0,0 +1,37 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.EvictionGuardedCaffeineCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+    
+    public static final String PRODUCTS_BY_ID = "productsById";
+    public static final String PRODUCTS_BY_SKU = "productsBySku";
+    
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${ecommerce.cache.products.spec:maximumSize=10000,expireAfterWrite=5m,recordStats}") String spec) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(productCache(PRODUCTS_BY_ID, spec), productCache(PRODUCTS_BY_SKU, spec)));
+        return cacheManager;
+    }
+    
+    // Evictions issued inside a transaction are applied after it commits; the guarded cache then
+    // refuses puts from readers that loaded before that eviction. Boot's cache metrics unwrap the
+    // decorator and still see a CaffeineCache.
+    private static Cache productCache(String name, String spec) {
+        return new TransactionAwareCacheDecorator(new EvictionGuardedCaffeineCache(name, Caffeine.from(spec).build()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ecommerce.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits a bounded number of threads to the connection pool. With virtual threads the number
+ * of callers is effectively unbounded; queueing them on a fair semaphore keeps them parked
+ * cheaply instead of all contending inside the pool.
+ * <p>
+ * A permit belongs to a thread, not a connection: a thread that already holds a connection
+ * (a {@code REQUIRES_NEW} transaction, a JDBC call next to a JPA transaction) goes straight to
+ * the pool. Otherwise admitted threads could all wait for a second permit held by each other.
+ * The pool must therefore be larger than the permit count; see {@link VirtualThreadConfiguration}.
+ */
+public class ConnectionGateDataSource extends DelegatingDataSource {
+    
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    // Connections open on this thread; the permit is released when the last one closes
+    private final ThreadLocal<AtomicInteger> heldConnections = ThreadLocal.withInitial(AtomicInteger::new);
+    
+    public ConnectionGateDataSource(DataSource targetDataSource, int permits, long timeoutMillis) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger held = admit();
+        try {
+            return releasingOnClose(super.getConnection(), held);
+        } catch (SQLException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        AtomicInteger held = admit();
+        try {
+            return releasingOnClose(super.getConnection(username, password), held);
+        } catch (SQLException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+    
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+    
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+    
+    private AtomicInteger admit() throws SQLException {
+        AtomicInteger held = heldConnections.get();
+        if (held.get() == 0) {
+            acquire();
+        }
+        held.incrementAndGet();
+        return held;
+    }
+    
+    // Counts on the admitting thread's counter, so a connection closed elsewhere still releases its permit
+    private void release(AtomicInteger held) {
+        if (held.decrementAndGet() == 0) {
+            permits.release();
+        }
+    }
+    
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Connection gate timed out after " + timeoutMillis + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+    
+    private Connection releasingOnClose(Connection connection, AtomicInteger held) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            release(held);
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
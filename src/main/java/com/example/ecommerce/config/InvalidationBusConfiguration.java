@@ -0,0 +1,28 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.InMemoryInvalidationBus;
+import com.example.ecommerce.cache.InvalidationBus;
+import com.example.ecommerce.cache.PostgresInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class InvalidationBusConfiguration {
+    
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.cache.invalidation-bus", havingValue = "postgres", matchIfMissing = true)
+    public InvalidationBus postgresInvalidationBus(DataSource dataSource, DataSourceProperties properties) {
+        return new PostgresInvalidationBus(dataSource, properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword());
+    }
+    
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "ecommerce.cache.invalidation-bus", havingValue = "memory")
+    public InvalidationBus inMemoryInvalidationBus() {
+        return new InMemoryInvalidationBus();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.service.ordernumber.OrderNumberGenerator;
+import com.example.ecommerce.service.ordernumber.SequenceHiLoOrderNumberGenerator;
+import com.example.ecommerce.service.ordernumber.SnowflakeOrderNumberGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+
+@Configuration
+public class OrderNumberConfiguration {
+    
+    /**
+     * Node ids are not defaulted: two replicas sharing one would hand out the same numbers, so
+     * a node without {@code ecommerce.orders.node-id} (env {@code NODE_ID}) refuses to start.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.orders.number-generator", havingValue = "snowflake", matchIfMissing = true)
+    public OrderNumberGenerator snowflakeOrderNumberGenerator(
+            @Value("${ecommerce.orders.node-id:}") String nodeId) {
+        if (!StringUtils.hasText(nodeId)) {
+            throw new IllegalStateException("ecommerce.orders.node-id (NODE_ID) must be set to a value unique per "
+                    + "application node when the snowflake order number generator is active");
+        }
+        return new SnowflakeOrderNumberGenerator(Long.parseLong(nodeId.trim()));
+    }
+    
+    // order_number_seq is created by db/migration/V4
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.orders.number-generator", havingValue = "sequence")
+    public OrderNumberGenerator sequenceOrderNumberGenerator(
+            JdbcTemplate jdbcTemplate,
+            @Value("${ecommerce.orders.number-block-size:100}") int blockSize) {
+        return new SequenceHiLoOrderNumberGenerator(jdbcTemplate, "order_number_seq", blockSize);
+    }
+}
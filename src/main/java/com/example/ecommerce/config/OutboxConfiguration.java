@@ -0,0 +1,47 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.outbox.FileOutboxSink;
+import com.example.ecommerce.outbox.InMemoryOutboxSink;
+import com.example.ecommerce.outbox.OutboxDispatcher;
+import com.example.ecommerce.outbox.OutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class OutboxConfiguration {
+    
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public OutboxSink inMemoryOutboxSink(@Value("${ecommerce.outbox.memory-capacity:10000}") int capacity) {
+        return new InMemoryOutboxSink(capacity);
+    }
+    
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "ecommerce.outbox.sink", havingValue = "file")
+    public OutboxSink fileOutboxSink(@Value("${ecommerce.outbox.file-path:outbox/events.ndjson}") String path,
+                                     ObjectMapper objectMapper) throws IOException {
+        return new FileOutboxSink(Path.of(path), objectMapper);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxDispatcher outboxDispatcher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                             OutboxSink outboxSink, MeterRegistry meterRegistry,
+                                             @Value("${ecommerce.outbox.dispatcher.batch-size:100}") int batchSize,
+                                             @Value("${ecommerce.outbox.dispatcher.parallelism:2}") int parallelism,
+                                             @Value("${ecommerce.outbox.dispatcher.poll-interval-ms:200}") long pollIntervalMillis,
+                                             @Value("${ecommerce.outbox.dispatcher.max-attempts:10}") int maxAttempts,
+                                             @Value("${ecommerce.outbox.dispatcher.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        return new OutboxDispatcher(jdbcTemplate, transactionTemplate, outboxSink, meterRegistry,
+                batchSize, parallelism, pollIntervalMillis, maxAttempts, retryBackoffMillis);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in with {@code ecommerce.datasource.routing.enabled=true}. Replaces the auto-configured
+ * pool with one Hikari pool per node ({@code primary}, plus one per replica named after it),
+ * each publishing {@code hikaricp.*} metrics tagged with its pool name, behind a
+ * {@link ReadWriteRoutingDataSource}.
+ *
+ * <p>The primary pool is built like the auto-configured one, from {@code spring.datasource.*}
+ * and {@code spring.datasource.hikari.*}, and is a bean of its own so that bean post-processors
+ * such as the connection gate in {@link VirtualThreadConfiguration} apply to it.
+ */
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(name = "ecommerce.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+    
+    @Bean
+    public ReplicaSet replicaSet(ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getReplicas().isEmpty()) {
+            throw new IllegalStateException("ecommerce.datasource.routing.enabled is set but no replicas are configured");
+        }
+        List<ReplicaSet.Member> members = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.getReplicas().get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + (i + 1);
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername());
+            config.setPassword(replica.getPassword());
+            config.setMaximumPoolSize(replica.getMaximumPoolSize());
+            config.setReadOnly(true);
+            members.add(new ReplicaSet.Member(name, pool(name, config, meterRegistry)));
+        }
+        return new ReplicaSet(members, properties.getLagQuery(), properties.getMaxLagSeconds(),
+                properties.getHealthCheckIntervalMs(), meterRegistry);
+    }
+    
+    // Closed with the routing data source
+    @Bean(destroyMethod = "")
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return primary;
+    }
+    
+    // The primary pool is taken as a DataSource, since a post-processor may have wrapped it
+    @Bean(destroyMethod = "close", autowireCandidate = false)
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                                 ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+        // Routing by name, since the names are also the metric tags
+        replicaSet.members().forEach(member -> targets.put(member.getName(), member.getDataSource()));
+        
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaSet, meterRegistry);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        return routing;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaSet replicaSet,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource(primary, replicaSet, meterRegistry));
+    }
+    
+    private static HikariDataSource pool(String name, HikariConfig config, MeterRegistry meterRegistry) {
+        config.setPoolName(name);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ecommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ecommerce.datasource.routing.*}: the read replicas that read-only transactions are
+ * routed to. The primary is still configured through {@code spring.datasource.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.datasource.routing")
+public class ReadReplicaProperties {
+    
+    // Default replay-lag query for PostgreSQL streaming replicas. A replica that has replayed
+    // everything it received reports 0 even when the primary has been idle for a while, so the
+    // query first checks that it is still receiving: a replica whose WAL receiver is gone
+    // (detached) or that was promoted reports NULL. Without pg_read_all_stats the receiver's
+    // status is hidden, and a running receiver counts as streaming.
+    static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN NULL " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE COALESCE(status, 'streaming') = 'streaming') " +
+            "THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+    
+    private boolean enabled;
+    
+    // Replicas further behind than this are skipped until they catch up
+    private double maxLagSeconds = 5;
+    
+    private long healthCheckIntervalMs = 1000;
+    
+    // Must return a single number: replication lag in seconds, or NULL if the replica is not replicating
+    private String lagQuery = POSTGRES_LAG_QUERY;
+    
+    private List<Replica> replicas = new ArrayList<>();
+    
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica and everything else,
+ * including non-transactional access, to the primary. The read-only flag is only known once
+ * the transaction has started, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ *
+ * <p>Reads that fill a cache run through {@link #onPrimary}: a replica that has not replayed a
+ * change yet would otherwise put the old row back into the cache right after its invalidation,
+ * where it stays until the next change.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    
+    static final String PRIMARY = "primary";
+    
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+    
+    private final ReplicaSet replicas;
+    private final Counter primaryWrites;
+    private final Counter primaryReads;
+    private final Counter primaryCacheFills;
+    private final MeterRegistry meterRegistry;
+    
+    public ReadWriteRoutingDataSource(ReplicaSet replicas, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.meterRegistry = meterRegistry;
+        this.primaryWrites = routed(PRIMARY, "read_write");
+        this.primaryReads = routed(PRIMARY, "no_healthy_replica");
+        this.primaryCacheFills = routed(PRIMARY, "cache_fill");
+    }
+    
+    /**
+     * Runs {@code read} with every connection it opens taken from the primary, even in a
+     * read-only transaction. A connection the caller's transaction already holds is reused as
+     * is, so call this outside transactions. Without routing it simply runs {@code read}.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (PRIMARY_ONLY.get() != null) {
+            return read.get();
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            return PRIMARY;
+        }
+        if (PRIMARY_ONLY.get() != null) {
+            primaryCacheFills.increment();
+            return PRIMARY;
+        }
+        String replica = replicas.next();
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        routed(replica, "read_only").increment();
+        return replica;
+    }
+    
+    private Counter routed(String route, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out per route")
+                .tag("route", route)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void close() {
+        // Pools may be wrapped, e.g. by the connection gate
+        getResolvedDataSources().values().forEach(dataSource -> {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    dataSource.unwrap(HikariDataSource.class).close();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot close pool " + dataSource, e);
+            }
+        });
+    }
+}
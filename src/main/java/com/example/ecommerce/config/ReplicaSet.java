@@ -0,0 +1,154 @@
+package com.example.ecommerce.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks which read replicas are usable. A background check runs the lag query on every
+ * replica; a replica is healthy if the query succeeds and reports no more than
+ * {@code maxLagSeconds}. A NULL lag means the replica is no longer replicating, and it is
+ * skipped like a failed one. Lookups round-robin over the healthy ones.
+ */
+@Slf4j
+public class ReplicaSet implements SmartLifecycle {
+    
+    private final List<Member> members;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final long checkIntervalMillis;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    
+    private volatile boolean running;
+    private ScheduledExecutorService checker;
+    
+    public ReplicaSet(List<Member> members, String lagQuery, double maxLagSeconds, long checkIntervalMillis,
+                      MeterRegistry meterRegistry) {
+        this.members = List.copyOf(members);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+        
+        for (Member member : this.members) {
+            Gauge.builder("datasource.replica.lag", member, m -> m.lagSeconds)
+                    .description("Replication lag reported by the last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", member.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", member, m -> m.healthy ? 1 : 0)
+                    .description("1 if the replica currently receives read-only transactions")
+                    .tag("replica", member.getName())
+                    .register(meterRegistry);
+        }
+    }
+    
+    public List<Member> members() {
+        return members;
+    }
+    
+    /**
+     * @return the name of the next healthy replica, or null if none is healthy
+     */
+    public String next() {
+        int size = members.size();
+        int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Member member = members.get((start + i) % size);
+            if (member.healthy) {
+                return member.getName();
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        checkAll();
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    void checkAll() {
+        members.forEach(this::check);
+    }
+    
+    private void check(Member member) {
+        boolean wasHealthy = member.healthy;
+        boolean detached;
+        try (Connection connection = member.getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            resultSet.next();
+            double lagSeconds = resultSet.getDouble(1);
+            detached = resultSet.wasNull();
+            member.lagSeconds = detached ? Double.NaN : lagSeconds;
+            member.healthy = !detached && lagSeconds <= maxLagSeconds;
+        } catch (SQLException | RuntimeException e) {
+            member.lagSeconds = Double.NaN;
+            member.healthy = false;
+            if (wasHealthy) {
+                log.warn("Replica {} failed its health check, routing its reads to other nodes", member.getName(), e);
+            }
+            return;
+        }
+        if (wasHealthy != member.healthy) {
+            log.info("Replica {} is now {} (lag {}s)", member.getName(),
+                    member.healthy ? "healthy" : detached ? "detached" : "lagging", member.lagSeconds);
+        }
+    }
+    
+    public static class Member {
+        
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+        
+        public Member(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+        
+        public boolean isHealthy() {
+            return healthy;
+        }
+    }
+}
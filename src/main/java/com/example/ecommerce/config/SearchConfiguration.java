@@ -0,0 +1,25 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.search.InMemoryProductSearchEngine;
+import com.example.ecommerce.service.search.PostgresTrigramProductSearchEngine;
+import com.example.ecommerce.service.search.ProductSearchEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SearchConfiguration {
+    
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.search.engine", havingValue = "postgres", matchIfMissing = true)
+    public ProductSearchEngine postgresTrigramProductSearchEngine(ProductRepository productRepository) {
+        return new PostgresTrigramProductSearchEngine(productRepository);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "ecommerce.search.engine", havingValue = "memory")
+    public ProductSearchEngine inMemoryProductSearchEngine(ProductRepository productRepository) {
+        return new InMemoryProductSearchEngine(productRepository);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ecommerce.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts the SQL statements sent on the current thread, at the JDBC layer so Hibernate,
+ * JdbcTemplate and raw connection use (NOTIFY, advisory locks) are all included. A prepared
+ * statement counts once however often it is executed or batched; a plain {@link Statement}
+ * counts each execute. Work that bypasses JDBC, such as PostgreSQL {@code COPY}, calls
+ * {@link #increment()} itself. The count is per thread because a global count cannot be
+ * attributed to one of several concurrent calls.
+ */
+public class SqlStatementCounter extends DelegatingDataSource {
+    
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    private static final Set<String> PREPARE = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+            "executeBatch", "executeLargeBatch");
+    
+    public SqlStatementCounter(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+    
+    public static int current() {
+        return COUNT.get()[0];
+    }
+    
+    public static void increment() {
+        COUNT.get()[0]++;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+    
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (PREPARE.contains(method.getName())) {
+                        increment();
+                    }
+                    Object result = invoke(connection, method, args);
+                    if ("createStatement".equals(method.getName())) {
+                        return counting((Statement) result);
+                    }
+                    return result;
+                });
+    }
+    
+    private static Statement counting(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if (EXECUTE.contains(method.getName())) {
+                        increment();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
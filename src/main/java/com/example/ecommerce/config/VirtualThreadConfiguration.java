@@ -0,0 +1,69 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Opt-in with {@code spring.threads.virtual.enabled=true} on Java 21+. Spring Boot then runs
+ * Tomcat request handling, and with it REST calls and MCP tool calls over HTTP, on virtual
+ * threads; this configuration adds the connection gate in front of Hikari. The gate admits
+ * {@code maximum-pool-size - reserved-connections} threads; the reserved connections serve
+ * admitted threads that open a second connection, so those can never all block on each other.
+ */
+@Configuration
+@ConditionalOnJava(JavaVersion.TWENTY_ONE)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+    
+    @Bean
+    public static BeanPostProcessor connectionGateBeanPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${ecommerce.datasource.gate.reserved-connections:2}") int reservedConnections) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // The data source may already be wrapped, e.g. by the SQL statement counter, and with
+                // read replicas the routing data source reaches the primary pool, which is gated itself
+                HikariDataSource hikari = unwrap(bean, HikariDataSource.class);
+                if (hikari == null || unwrap(bean, ConnectionGateDataSource.class) != null) {
+                    return bean;
+                }
+                int admitted = hikari.getMaximumPoolSize() - reservedConnections;
+                if (reservedConnections < 1 || admitted < 1) {
+                    throw new IllegalStateException("ecommerce.datasource.gate.reserved-connections must be at least 1 "
+                            + "and below the pool size " + hikari.getMaximumPoolSize() + ", was " + reservedConnections);
+                }
+                ConnectionGateDataSource gate = new ConnectionGateDataSource((DataSource) bean, admitted,
+                        hikari.getConnectionTimeout());
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("jdbc.connection.gate.available", gate, ConnectionGateDataSource::getAvailablePermits)
+                            .register(registry);
+                    Gauge.builder("jdbc.connection.gate.waiting", gate, ConnectionGateDataSource::getQueueLength)
+                            .register(registry);
+                });
+                return gate;
+            }
+        };
+    }
+    
+    private static <T> T unwrap(Object bean, Class<T> type) {
+        try {
+            return bean instanceof DataSource dataSource && dataSource.isWrapperFor(type)
+                    ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -2,12 +2,19 @@ package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.CustomerDto;
 import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.imports.BulkImportService;
+import com.example.ecommerce.service.imports.ImportFormat;
+import com.example.ecommerce.service.imports.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -16,13 +23,25 @@ import java.util.List;
 public class CustomerController {
     
     private final CustomerService customerService;
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
-    public ResponseEntity<CustomerDto> createCustomer(@Valid @RequestBody CustomerDto customerDto) {
-        CustomerDto createdCustomer = customerService.createCustomer(customerDto);
+    public ResponseEntity<CustomerDto> createCustomer(
+            @Valid @RequestBody CustomerDto customerDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        CustomerDto createdCustomer = customerService.createCustomer(customerDto, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCustomer);
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", KeysetPagination.NDJSON})
+    public ResponseEntity<ImportReport> importCustomers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        ImportReport report = bulkImportService.importCustomers(body, ImportFormat.fromContentType(contentType));
+        return ResponseEntity.ok(report);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<CustomerDto> getCustomerById(@PathVariable Long id) {
         CustomerDto customer = customerService.getCustomerById(id);
@@ -30,9 +49,17 @@ public class CustomerController {
     }
     
     @GetMapping
-    public ResponseEntity<List<CustomerDto>> getAllCustomers() {
-        List<CustomerDto> customers = customerService.getAllCustomers();
-        return ResponseEntity.ok(customers);
+    public ResponseEntity<List<CustomerDto>> getAllCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = KeysetPagination.clampLimit(limit);
+        List<CustomerDto> customers = customerService.getCustomersAfter(after, pageSize);
+        return KeysetPagination.page(customers, pageSize, CustomerDto::getId);
+    }
+    
+    @GetMapping(produces = KeysetPagination.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllCustomers() {
+        return KeysetPagination.ndjson(objectMapper, customerService::streamAllCustomers);
     }
     
     @GetMapping("/email/{email}")
@@ -3,11 +3,13 @@ package com.example.ecommerce.controller;
 import com.example.ecommerce.dto.OrderDto;
 import com.example.ecommerce.entity.Order;
 import com.example.ecommerce.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,10 +19,13 @@ import java.util.List;
 public class OrderController {
     
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@Valid @RequestBody OrderDto orderDto) {
-        OrderDto createdOrder = orderService.createOrder(orderDto);
+    public ResponseEntity<OrderDto> createOrder(
+            @Valid @RequestBody OrderDto orderDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        OrderDto createdOrder = orderService.createOrder(orderDto, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
     
@@ -31,15 +36,27 @@ public class OrderController {
     }
     
     @GetMapping
-    public ResponseEntity<List<OrderDto>> getAllOrders() {
-        List<OrderDto> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDto>> getAllOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = KeysetPagination.clampLimit(limit);
+        List<OrderDto> orders = orderService.getOrdersAfter(after, pageSize);
+        return KeysetPagination.page(orders, pageSize, OrderDto::getId);
+    }
+    
+    @GetMapping(produces = KeysetPagination.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        return KeysetPagination.ndjson(objectMapper, orderService::streamAllOrders);
     }
     
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderDto>> getOrdersByCustomerId(@PathVariable Long customerId) {
-        List<OrderDto> orders = orderService.getOrdersByCustomerId(customerId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDto>> getOrdersByCustomerId(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = KeysetPagination.clampLimit(limit);
+        List<OrderDto> orders = orderService.getOrdersByCustomerId(customerId, after, pageSize);
+        return KeysetPagination.page(orders, pageSize, OrderDto::getId);
     }
     
     @PutMapping("/{id}/status")
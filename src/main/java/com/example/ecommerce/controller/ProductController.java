@@ -2,12 +2,19 @@ package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.imports.BulkImportService;
+import com.example.ecommerce.service.imports.ImportFormat;
+import com.example.ecommerce.service.imports.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -16,6 +23,8 @@ import java.util.List;
 public class ProductController {
     
     private final ProductService productService;
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<ProductDto> createProduct(@Valid @RequestBody ProductDto productDto) {
@@ -23,6 +32,14 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", KeysetPagination.NDJSON})
+    public ResponseEntity<ImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        ImportReport report = bulkImportService.importProducts(body, ImportFormat.fromContentType(contentType));
+        return ResponseEntity.ok(report);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
         ProductDto product = productService.getProductById(id);
@@ -30,9 +47,17 @@ public class ProductController {
     }
     
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDto>> getAllProducts(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = KeysetPagination.clampLimit(limit);
+        List<ProductDto> products = productService.getProductsAfter(after, pageSize);
+        return KeysetPagination.page(products, pageSize, ProductDto::getId);
+    }
+    
+    @GetMapping(produces = KeysetPagination.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        return KeysetPagination.ndjson(objectMapper, productService::streamAllProducts);
     }
     
     @GetMapping("/category/{category}")
@@ -42,8 +67,10 @@ public class ProductController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDto>> searchProductsByName(@RequestParam String name) {
-        List<ProductDto> products = productService.searchProductsByName(name);
+    public ResponseEntity<List<ProductDto>> searchProductsByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<ProductDto> products = productService.searchProductsByName(name, 0, KeysetPagination.clampLimit(limit));
         return ResponseEntity.ok(products);
     }
     
@@ -37,6 +37,12 @@ public class CustomerDto {
     
     private LocalDateTime createdAt;
     
+    // Used by JPQL constructor expressions, which pass the embedded address as one value
+    public CustomerDto(Long id, String firstName, String lastName, String email, String phone,
+                       Customer.Address address, LocalDateTime createdAt) {
+        this(id, firstName, lastName, email, phone, AddressDto.from(address), createdAt);
+    }
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -55,5 +61,13 @@ public class CustomerDto {
         
         @NotBlank(message = "Country is required")
         private String country;
+        
+        public static AddressDto from(Customer.Address address) {
+            if (address == null) {
+                return null;
+            }
+            return new AddressDto(address.getStreet(), address.getCity(), address.getState(),
+                    address.getZipCode(), address.getCountry());
+        }
     }
 }
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,7 +18,9 @@ import java.util.List;
 public class Customer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "customers_id")
+    @GenericGenerator(name = "customers_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "customers_seq"))
     private Long id;
     
     @Column(nullable = false)
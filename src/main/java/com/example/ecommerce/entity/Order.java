@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,7 +19,9 @@ import java.util.List;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orders_id")
+    @GenericGenerator(name = "orders_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "orders_seq"))
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -43,13 +47,15 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Sequence of the last outbox event written for this order. Only set on insert; status
+    // changes increment it with OrderRepository.incrementEventSequence, which locks the row
+    @Column(name = "event_sequence", nullable = false, updatable = false)
+    private long eventSequence;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        if (orderNumber == null) {
-            orderNumber = "ORD-" + System.currentTimeMillis();
-        }
     }
     
     @PreUpdate
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.math.BigDecimal;
 
@@ -15,7 +17,9 @@ import java.math.BigDecimal;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_items_id")
+    @GenericGenerator(name = "order_items_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "order_items_seq"))
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
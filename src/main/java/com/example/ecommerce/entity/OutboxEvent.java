@@ -0,0 +1,64 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event written in the same transaction as the change it describes. Rows are
+ * deleted by the outbox dispatcher once a sink has accepted them, or moved to
+ * {@link OutboxDeadLetter} when every attempt has failed.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(generator = "outbox_events_id")
+    @GenericGenerator(name = "outbox_events_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "outbox_events_seq"))
+    private Long id;
+    
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+    
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+    
+    // 1, 2, 3... per aggregate; the dispatcher publishes an aggregate's events in this order
+    @Column(name = "aggregate_sequence", nullable = false)
+    private Long aggregateSequence;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Failed publications so far, and when the dispatcher may claim the event again
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        nextAttemptAt = createdAt;
+    }
+}
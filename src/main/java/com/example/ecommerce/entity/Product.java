@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,7 +19,9 @@ import java.util.List;
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "products_id")
+    @GenericGenerator(name = "products_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "products_seq"))
     private Long id;
     
     @Column(nullable = false)
@@ -32,12 +36,15 @@ public class Product {
     @Column(nullable = false)
     private String category;
     
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String sku;
     
     @Column(nullable = false)
     private Integer stockQuantity;
     
+    @Version
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
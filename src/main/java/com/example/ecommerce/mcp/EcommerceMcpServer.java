@@ -6,12 +6,18 @@ import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.service.CustomerService;
 import com.example.ecommerce.service.OrderService;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.imports.BulkImportService;
+import com.example.ecommerce.service.imports.ImportFormat;
+import com.example.ecommerce.service.imports.ImportReport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.mcp.server.McpServer;
 import org.springframework.ai.mcp.server.McpTool;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,9 +26,15 @@ import java.util.Map;
 @Slf4j
 public class EcommerceMcpServer {
     
+    private static final String IDEMPOTENCY_KEY_DESCRIPTION =
+            "Unique key for this request (optional); retrying with the same key returns the first result instead of creating a duplicate";
+    
     private final CustomerService customerService;
     private final ProductService productService;
     private final OrderService orderService;
+    private final BulkImportService bulkImportService;
+    private final McpResultPager resultPager;
+    private final McpToolInvoker toolInvoker;
     
     @McpTool(
         name = "create_customer",
@@ -37,9 +49,10 @@ public class EcommerceMcpServer {
             @McpTool.Parameter(description = "City") String city,
             @McpTool.Parameter(description = "State") String state,
             @McpTool.Parameter(description = "ZIP code") String zipCode,
-            @McpTool.Parameter(description = "Country") String country) {
+            @McpTool.Parameter(description = "Country") String country,
+            @McpTool.Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION) String idempotencyKey) {
         
-        try {
+        return toolInvoker.invoke("create_customer", "create customer", () -> {
             CustomerDto customerDto = new CustomerDto();
             customerDto.setFirstName(firstName);
             customerDto.setLastName(lastName);
@@ -54,20 +67,14 @@ public class EcommerceMcpServer {
             address.setCountry(country);
             customerDto.setAddress(address);
             
-            CustomerDto createdCustomer = customerService.createCustomer(customerDto);
+            CustomerDto createdCustomer = customerService.createCustomer(customerDto, idempotencyKey);
             
             return Map.of(
                 "success", true,
                 "message", "Customer created successfully",
                 "customer", createdCustomer
             );
-        } catch (Exception e) {
-            log.error("Error creating customer", e);
-            return Map.of(
-                "success", false,
-                "message", "Failed to create customer: " + e.getMessage()
-            );
-        }
+        });
     }
     
     @McpTool(
@@ -82,7 +89,7 @@ public class EcommerceMcpServer {
             @McpTool.Parameter(description = "Product SKU") String sku,
             @McpTool.Parameter(description = "Stock quantity") Integer stockQuantity) {
         
-        try {
+        return toolInvoker.invoke("create_product", "create product", () -> {
             ProductDto productDto = new ProductDto();
             productDto.setName(name);
             productDto.setDescription(description);
@@ -98,13 +105,7 @@ public class EcommerceMcpServer {
                 "message", "Product created successfully",
                 "product", createdProduct
             );
-        } catch (Exception e) {
-            log.error("Error creating product", e);
-            return Map.of(
-                "success", false,
-                "message", "Failed to create product: " + e.getMessage()
-            );
-        }
+        });
     }
     
     @McpTool(
@@ -113,9 +114,10 @@ public class EcommerceMcpServer {
     )
     public Map<String, Object> createOrder(
             @McpTool.Parameter(description = "Customer ID") Long customerId,
-            @McpTool.Parameter(description = "List of product IDs and quantities as JSON string") String orderItemsJson) {
+            @McpTool.Parameter(description = "List of product IDs and quantities as JSON string") String orderItemsJson,
+            @McpTool.Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION) String idempotencyKey) {
         
-        try {
+        return toolInvoker.invoke("create_order", "create order", () -> {
             // Parse order items from JSON string
             // For simplicity, we'll expect format: "productId1:quantity1,productId2:quantity2"
             OrderDto orderDto = new OrderDto();
@@ -124,20 +126,54 @@ public class EcommerceMcpServer {
             List<OrderDto.OrderItemDto> orderItems = parseOrderItems(orderItemsJson);
             orderDto.setOrderItems(orderItems);
             
-            OrderDto createdOrder = orderService.createOrder(orderDto);
+            OrderDto createdOrder = orderService.createOrder(orderDto, idempotencyKey);
             
             return Map.of(
                 "success", true,
                 "message", "Order created successfully",
                 "order", createdOrder
             );
-        } catch (Exception e) {
-            log.error("Error creating order", e);
+        });
+    }
+    
+    @McpTool(
+        name = "import_products",
+        description = "Bulk import products from CSV (header: name,description,price,category,sku,stockQuantity) or NDJSON content"
+    )
+    public Map<String, Object> importProducts(
+            @McpTool.Parameter(description = "Content format: csv or ndjson") String format,
+            @McpTool.Parameter(description = "CSV rows with a header line, or one JSON object per line") String content) {
+        
+        return toolInvoker.invoke("import_products", "import products", () -> {
+            ImportReport report = bulkImportService.importProducts(
+                    new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), ImportFormat.fromName(format));
+            
             return Map.of(
-                "success", false,
-                "message", "Failed to create order: " + e.getMessage()
+                "success", report.getRowsRejected() == 0,
+                "message", "Imported " + report.getRowsImported() + " of " + report.getRowsRead() + " products",
+                "report", report
             );
-        }
+        });
+    }
+    
+    @McpTool(
+        name = "import_customers",
+        description = "Bulk import customers from CSV (header: firstName,lastName,email,phone,street,city,state,zipCode,country) or NDJSON content"
+    )
+    public Map<String, Object> importCustomers(
+            @McpTool.Parameter(description = "Content format: csv or ndjson") String format,
+            @McpTool.Parameter(description = "CSV rows with a header line, or one JSON object per line") String content) {
+        
+        return toolInvoker.invoke("import_customers", "import customers", () -> {
+            ImportReport report = bulkImportService.importCustomers(
+                    new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), ImportFormat.fromName(format));
+            
+            return Map.of(
+                "success", report.getRowsRejected() == 0,
+                "message", "Imported " + report.getRowsImported() + " of " + report.getRowsRead() + " customers",
+                "report", report
+            );
+        });
     }
     
     @McpTool(
@@ -148,7 +184,7 @@ public class EcommerceMcpServer {
             @McpTool.Parameter(description = "Customer ID (optional if email provided)") Long customerId,
             @McpTool.Parameter(description = "Customer email (optional if ID provided)") String email) {
         
-        try {
+        return toolInvoker.invoke("get_customer", "get customer", () -> {
             CustomerDto customer;
             if (customerId != null) {
                 customer = customerService.getCustomerById(customerId);
@@ -165,13 +201,7 @@ public class EcommerceMcpServer {
                 "success", true,
                 "customer", customer
             );
-        } catch (Exception e) {
-            log.error("Error getting customer", e);
-            return Map.of(
-                "success", false,
-                "message", "Failed to get customer: " + e.getMessage()
-            );
-        }
+        });
     }
     
     @McpTool(
@@ -181,9 +211,11 @@ public class EcommerceMcpServer {
     public Map<String, Object> getProduct(
             @McpTool.Parameter(description = "Product ID (optional)") Long productId,
             @McpTool.Parameter(description = "Product SKU (optional)") String sku,
-            @McpTool.Parameter(description = "Search by product name (optional)") String name) {
+            @McpTool.Parameter(description = "Search by product name (optional)") String name,
+            @McpTool.Parameter(description = "Maximum number of products to return for a name search (optional)") Integer limit,
+            @McpTool.Parameter(description = "Continuation token from a previous name search (optional)") String cursor) {
         
-        try {
+        return toolInvoker.invoke("get_product", "get product", () -> {
             if (productId != null) {
                 ProductDto product = productService.getProductById(productId);
                 return Map.of("success", true, "product", product);
@@ -191,21 +223,64 @@ public class EcommerceMcpServer {
                 ProductDto product = productService.getProductBySku(sku);
                 return Map.of("success", true, "product", product);
             } else if (name != null) {
-                List<ProductDto> products = productService.searchProductsByName(name);
-                return Map.of("success", true, "products", products);
+                // Results are ranked by relevance, so the cursor is an offset rather than an id
+                int skip = resultPager.decodeOffset(cursor);
+                List<ProductDto> products = productService.searchProductsByName(name, skip, resultPager.fetchSize(limit));
+                return resultPager.pageByOffset("products", products, limit, skip);
             } else {
                 return Map.of(
                     "success", false,
                     "message", "Either product ID, SKU, or name must be provided"
                 );
             }
-        } catch (Exception e) {
-            log.error("Error getting product", e);
-            return Map.of(
-                "success", false,
-                "message", "Failed to get product: " + e.getMessage()
-            );
-        }
+        });
+    }
+    
+    @McpTool(
+        name = "get_products",
+        description = "Get several products in one call by comma-separated IDs and/or SKUs; results are keyed by \"id:<ID>\" and \"sku:<SKU>\", with {\"found\": false} for keys that match nothing"
+    )
+    public Map<String, Object> getProducts(
+            @McpTool.Parameter(description = "Comma-separated product IDs (optional)") String productIds,
+            @McpTool.Parameter(description = "Comma-separated product SKUs (optional)") String skus) {
+        
+        return toolInvoker.invoke("get_products", "get products", () -> {
+            List<String> idKeys = parseKeys(productIds);
+            List<String> skuList = parseKeys(skus);
+            checkBatchSize(idKeys.size() + skuList.size());
+            
+            Map<Long, ProductDto> byId = productService.getProductsByIds(parseIds(idKeys));
+            Map<String, ProductDto> bySku = productService.getProductsBySkus(skuList);
+            
+            // Prefixed keys, so an ID and a SKU with the same text do not overwrite each other
+            Map<String, Object> products = new LinkedHashMap<>();
+            idKeys.forEach(key -> products.put("id:" + key, foundById(key, byId)));
+            skuList.forEach(sku -> products.put("sku:" + sku, found(bySku.get(sku))));
+            return Map.of("success", true, "products", products);
+        });
+    }
+    
+    @McpTool(
+        name = "get_customers",
+        description = "Get several customers in one call by comma-separated IDs and/or emails; results are keyed by \"id:<ID>\" and \"email:<email>\", with {\"found\": false} for keys that match nothing"
+    )
+    public Map<String, Object> getCustomers(
+            @McpTool.Parameter(description = "Comma-separated customer IDs (optional)") String customerIds,
+            @McpTool.Parameter(description = "Comma-separated customer emails (optional)") String emails) {
+        
+        return toolInvoker.invoke("get_customers", "get customers", () -> {
+            List<String> idKeys = parseKeys(customerIds);
+            List<String> emailList = parseKeys(emails);
+            checkBatchSize(idKeys.size() + emailList.size());
+            
+            Map<Long, CustomerDto> byId = customerService.getCustomersByIds(parseIds(idKeys));
+            Map<String, CustomerDto> byEmail = customerService.getCustomersByEmails(emailList);
+            
+            Map<String, Object> customers = new LinkedHashMap<>();
+            idKeys.forEach(key -> customers.put("id:" + key, foundById(key, byId)));
+            emailList.forEach(email -> customers.put("email:" + email, found(byEmail.get(email))));
+            return Map.of("success", true, "customers", customers);
+        });
     }
     
     @McpTool(
@@ -214,31 +289,75 @@ public class EcommerceMcpServer {
     )
     public Map<String, Object> getOrder(
             @McpTool.Parameter(description = "Order ID (optional if customer ID provided)") Long orderId,
-            @McpTool.Parameter(description = "Customer ID to get all orders (optional)") Long customerId) {
+            @McpTool.Parameter(description = "Customer ID to get all orders (optional)") Long customerId,
+            @McpTool.Parameter(description = "Maximum number of orders to return for a customer (optional)") Integer limit,
+            @McpTool.Parameter(description = "Continuation token from a previous customer lookup (optional)") String cursor) {
         
-        try {
+        return toolInvoker.invoke("get_order", "get order", () -> {
             if (orderId != null) {
                 OrderDto order = orderService.getOrderById(orderId);
                 return Map.of("success", true, "order", order);
             } else if (customerId != null) {
-                List<OrderDto> orders = orderService.getOrdersByCustomerId(customerId);
-                return Map.of("success", true, "orders", orders);
+                List<OrderDto> orders = orderService.getOrdersByCustomerId(
+                        customerId, resultPager.decodeCursor(cursor), resultPager.fetchSize(limit));
+                return resultPager.page("orders", orders, limit, OrderDto::getId);
             } else {
                 return Map.of(
                     "success", false,
                     "message", "Either order ID or customer ID must be provided"
                 );
             }
-        } catch (Exception e) {
-            log.error("Error getting order", e);
-            return Map.of(
-                "success", false,
-                "message", "Failed to get order: " + e.getMessage()
-            );
+        });
+    }
+    
+    private static Object found(Object value) {
+        return value != null ? value : Map.of("found", false);
+    }
+    
+    // A malformed ID fails only its own entry, not the whole call
+    private static Object foundById(String key, Map<Long, ?> byId) {
+        Long id = parseId(key);
+        return id != null ? found(byId.get(id)) : Map.of("found", false, "error", "Invalid ID: " + key);
+    }
+    
+    private static Long parseId(String key) {
+        try {
+            return Long.valueOf(key);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private void checkBatchSize(int keys) {
+        if (keys == 0) {
+            throw new IllegalArgumentException("At least one ID or key must be provided");
         }
+        if (keys > resultPager.getMaxItems()) {
+            throw new IllegalArgumentException("At most " + resultPager.getMaxItems() + " keys can be requested at once");
+        }
+    }
+    
+    private List<Long> parseIds(List<String> keys) {
+        return keys.stream()
+                .map(EcommerceMcpServer::parseId)
+                .filter(java.util.Objects::nonNull)
+                .distinct()
+                .collect(java.util.stream.Collectors.toList());
+    }
+    
+    private List<String> parseKeys(String keys) {
+        if (keys == null || keys.isBlank()) {
+            return List.of();
+        }
+        return java.util.Arrays.stream(keys.split(","))
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .distinct()
+                .collect(java.util.stream.Collectors.toList());
     }
     
-    private List<OrderDto.OrderItemDto> parseOrderItems(String orderItemsJson) {
+    // Package-private for the JMH benchmarks
+    List<OrderDto.OrderItemDto> parseOrderItems(String orderItemsJson) {
         // Simple parser for format: "productId1:quantity1,productId2:quantity2"
         return java.util.Arrays.stream(orderItemsJson.split(","))
                 .map(item -> {
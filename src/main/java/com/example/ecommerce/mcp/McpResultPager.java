@@ -0,0 +1,137 @@
+package com.example.ecommerce.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caps list results returned by MCP tools by item count and serialized size, and hands out
+ * opaque continuation tokens (an encoded keyset id or offset) so clients can fetch the next page.
+ */
+@Component
+@RequiredArgsConstructor
+public class McpResultPager {
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${ecommerce.mcp.max-items:50}")
+    private int maxItems;
+    
+    @Value("${ecommerce.mcp.max-response-bytes:65536}")
+    private int maxResponseBytes;
+    
+    @Value("${ecommerce.mcp.max-offset:1000}")
+    private int maxOffset;
+    
+    public int getMaxItems() {
+        return maxItems;
+    }
+    
+    /**
+     * Number of rows a tool should load: the requested page size capped at the server limit,
+     * plus one row to detect whether another page exists.
+     */
+    public int fetchSize(Integer requestedLimit) {
+        return pageSize(requestedLimit) + 1;
+    }
+    
+    public Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    /**
+     * Decodes a cursor from {@link #pageByOffset}. Offsets outside {@code 0..max-offset} are rejected:
+     * a forged cursor must neither overflow an int nor make the database skip an unbounded number of rows.
+     */
+    public int decodeOffset(String cursor) {
+        Long offset = decodeCursor(cursor);
+        if (offset == null) {
+            return 0;
+        }
+        if (offset < 0 || offset > maxOffset) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return offset.intValue();
+    }
+    
+    /**
+     * Builds a successful tool response holding as many of {@code rows} as fit in the page size
+     * and byte budget, with a {@code nextCursor} (the last returned id) when more rows are available.
+     */
+    public <T> Map<String, Object> page(String key, List<T> rows, Integer requestedLimit, Function<T, Long> idExtractor) {
+        List<T> items = fit(rows, pageSize(requestedLimit));
+        Long next = items.size() < rows.size() ? idExtractor.apply(items.get(items.size() - 1)) : null;
+        return response(key, items, next);
+    }
+    
+    /**
+     * Same as {@link #page} for ranked results, where the cursor is the offset of the next row.
+     * Paging stops at {@code max-offset}.
+     */
+    public <T> Map<String, Object> pageByOffset(String key, List<T> rows, Integer requestedLimit, int offset) {
+        List<T> items = fit(rows, pageSize(requestedLimit));
+        long nextOffset = (long) offset + items.size();
+        Long next = items.size() < rows.size() && nextOffset <= maxOffset ? nextOffset : null;
+        return response(key, items, next);
+    }
+    
+    private <T> List<T> fit(List<T> rows, int pageSize) {
+        List<T> items = new ArrayList<>(Math.min(rows.size(), pageSize));
+        long bytes = 0;
+        for (T row : rows) {
+            if (items.size() == pageSize) {
+                break;
+            }
+            bytes += serializedSize(row);
+            // Always return at least one row so a single oversized item cannot stall paging
+            if (bytes > maxResponseBytes && !items.isEmpty()) {
+                break;
+            }
+            items.add(row);
+        }
+        return items;
+    }
+    
+    private Map<String, Object> response(String key, List<?> items, Long nextCursor) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put(key, items);
+        if (nextCursor != null) {
+            response.put("nextCursor", Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(String.valueOf(nextCursor).getBytes(StandardCharsets.UTF_8)));
+        }
+        return response;
+    }
+    
+    private int pageSize(Integer requestedLimit) {
+        if (requestedLimit == null || requestedLimit < 1) {
+            return maxItems;
+        }
+        return Math.min(requestedLimit, maxItems);
+    }
+    
+    private int serializedSize(Object row) {
+        try {
+            return objectMapper.writeValueAsBytes(row).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize tool result", e);
+        }
+    }
+}
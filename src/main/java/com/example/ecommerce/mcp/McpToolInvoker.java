@@ -0,0 +1,114 @@
+package com.example.ecommerce.mcp;
+
+import com.example.ecommerce.admission.AdmissionControl;
+import com.example.ecommerce.admission.AdmissionRejectedException;
+import com.example.ecommerce.config.SqlStatementCounter;
+import com.example.ecommerce.profiling.McpToolEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs every MCP tool body under admission control: turns exceptions into {@code success=false}
+ * responses, answers calls over the concurrency limit with a {@code retryAfterMs} hint, and records
+ * latency by outcome and exception type, response size and the number of SQL statements issued.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class McpToolInvoker {
+    
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final AdmissionControl admissionControl;
+    
+    public Map<String, Object> invoke(String tool, String action, Supplier<Map<String, Object>> body) {
+        McpToolEvent event = McpToolEvent.begin(tool);
+        long start = System.nanoTime();
+        int statementsBefore = SqlStatementCounter.current();
+        String exception = "none";
+        boolean shed = false;
+        Map<String, Object> response = null;
+        
+        AdmissionControl.Permit permit = null;
+        Throwable failure = null;
+        try {
+            permit = admissionControl.acquire(tool, admissionControl.classifyTool(tool));
+            response = body.get();
+        } catch (AdmissionRejectedException e) {
+            shed = true;
+            response = Map.of(
+                "success", false,
+                "message", "Server is busy, retry " + action + " after " + e.getRetryAfterMillis() + " ms",
+                "retryAfterMs", e.getRetryAfterMillis()
+            );
+        } catch (Exception e) {
+            log.error("Error in MCP tool {}", tool, e);
+            failure = e;
+            exception = e.getClass().getSimpleName();
+            response = Map.of(
+                "success", false,
+                "message", "Failed to " + action + ": " + e.getMessage()
+            );
+        } catch (Error e) {
+            // Not turned into a response, but the permit and the meters must not be lost with it
+            failure = e;
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            if (permit != null) {
+                permit.release(elapsedNanos, failure);
+            }
+            record(tool, event, elapsedNanos, statementsBefore, shed, exception, response);
+        }
+        return response;
+    }
+    
+    private void record(String tool, McpToolEvent event, long elapsedNanos, int statementsBefore, boolean shed,
+                        String exception, Map<String, Object> response) {
+        String outcome = shed ? "shed"
+                : !"none".equals(exception) || response == null ? "error"
+                : Boolean.TRUE.equals(response.get("success")) ? "success" : "rejected";
+        int statements = SqlStatementCounter.current() - statementsBefore;
+        int responseBytes = response == null ? 0 : serializedSize(response);
+        event.finish(outcome, statements, responseBytes);
+        
+        Timer.builder("mcp.tool.duration")
+                .description("MCP tool latency")
+                .tag("tool", tool)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("mcp.tool.sql.statements")
+                .description("SQL statements sent to the database per MCP tool call")
+                .tag("tool", tool)
+                .register(meterRegistry)
+                .record(statements);
+        DistributionSummary.builder("mcp.tool.response.size")
+                .description("Serialized MCP tool response size")
+                .baseUnit("bytes")
+                .tag("tool", tool)
+                .register(meterRegistry)
+                .record(responseBytes);
+    }
+    
+    private int serializedSize(Map<String, Object> response) {
+        try {
+            return objectMapper.writeValueAsBytes(response).length;
+        } catch (JsonProcessingException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ecommerce.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a local NDJSON file, one object per line. Each batch is flushed before
+ * {@link #publish} returns, so an accepted batch is on disk before its rows are deleted.
+ */
+@Slf4j
+public class FileOutboxSink implements OutboxSink, AutoCloseable {
+    
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+    
+    public FileOutboxSink(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Writing outbox events to {}", file.toAbsolutePath());
+    }
+    
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        try {
+            for (OutboxMessage message : messages) {
+                writer.write(objectMapper.writeValueAsString(message));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append outbox events", e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ecommerce.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recently published events in memory, for tests and local runs.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+    
+    private final int capacity;
+    private final Deque<OutboxMessage> published = new ArrayDeque<>();
+    private long publishedCount;
+    
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            if (published.size() == capacity) {
+                published.removeFirst();
+            }
+            published.addLast(message);
+        }
+        publishedCount += messages.size();
+    }
+    
+    public synchronized List<OutboxMessage> getPublished() {
+        return new ArrayList<>(published);
+    }
+    
+    public synchronized long getPublishedCount() {
+        return publishedCount;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.ecommerce.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the outbox on background workers. Each worker claims a batch with
+ * {@code FOR UPDATE SKIP LOCKED}, publishes it and deletes the rows in the same transaction,
+ * so workers on this and other instances never publish the same row concurrently. A full
+ * batch is followed immediately by the next one; a partial batch means the outbox is drained
+ * and the worker sleeps for the poll interval.
+ *
+ * <p>An event is only claimed once no earlier event of the same aggregate is left in the
+ * outbox, so each aggregate's events are published in {@code aggregate_sequence} order no
+ * matter how many workers run; events of different aggregates may interleave.
+ *
+ * <p>When a batch fails, its events are published one at a time so one bad event does not hold
+ * back the rest. A failed event is retried with exponential backoff, blocking later events of
+ * its aggregate, and after {@code maxAttempts} it is moved to {@code outbox_dead_letters}. That
+ * unblocks the aggregate and leaves a gap in its sequence for consumers to notice.
+ */
+@Slf4j
+public class OutboxDispatcher implements SmartLifecycle {
+    
+    // The NOT EXISTS probe is served by idx_outbox_events_aggregate_sequence. An earlier event
+    // still in the outbox is either locked by another worker or waiting for its retry
+    private static final String CLAIM_SQL =
+            "SELECT e.id, e.event_type, e.aggregate_type, e.aggregate_id, e.aggregate_sequence, e.payload, " +
+            "e.created_at, e.attempts FROM outbox_events e " +
+            "WHERE e.next_attempt_at <= ? AND NOT EXISTS (SELECT 1 FROM outbox_events p " +
+            "WHERE p.aggregate_type = e.aggregate_type AND p.aggregate_id = e.aggregate_id " +
+            "AND p.aggregate_sequence < e.aggregate_sequence) " +
+            "ORDER BY e.id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ?";
+    private static final String RETRY_SQL =
+            "UPDATE outbox_events SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String DEAD_LETTER_SQL =
+            "INSERT INTO outbox_dead_letters (id, event_type, aggregate_type, aggregate_id, aggregate_sequence, " +
+            "payload, created_at, attempts, last_error, dead_lettered_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int MAX_ERROR_LENGTH = 2000;
+    
+    private static final RowMapper<Claim> ROW_MAPPER = (rs, rowNum) -> new Claim(
+            new OutboxMessage(
+                    rs.getLong("id"),
+                    OutboxEventType.valueOf(rs.getString("event_type")),
+                    rs.getString("aggregate_type"),
+                    rs.getLong("aggregate_id"),
+                    rs.getLong("aggregate_sequence"),
+                    rs.getString("payload"),
+                    rs.getTimestamp("created_at").toLocalDateTime()),
+            rs.getInt("attempts"));
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final int parallelism;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    
+    private final Timer lag;
+    private final Timer batchDuration;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Counter deadLettered;
+    
+    private volatile boolean running;
+    private ExecutorService workers;
+    
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, OutboxSink sink,
+                            MeterRegistry meterRegistry, int batchSize, int parallelism, long pollIntervalMillis,
+                            int maxAttempts, long retryBackoffMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        
+        this.lag = Timer.builder("outbox.dispatch.lag")
+                .description("Time from an event being written to its publication")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("outbox.dispatch.batch")
+                .description("Time to claim, publish and delete one batch")
+                .register(meterRegistry);
+        this.dispatched = Counter.builder("outbox.dispatched")
+                .description("Events published to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.dispatch.failures")
+                .description("Failed attempts to publish an event")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("outbox.dead.lettered")
+                .description("Events moved to outbox_dead_letters after their last attempt")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", this, OutboxDispatcher::countPending)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < parallelism; i++) {
+            workers.execute(this::drain);
+        }
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    workers.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Claims and publishes one batch.
+     *
+     * @return the number of events published
+     */
+    public int dispatchBatch() {
+        Timer.Sample sample = Timer.start();
+        Integer published = transactionTemplate.execute(status -> {
+            List<Claim> batch = jdbcTemplate.query(CLAIM_SQL, ROW_MAPPER, LocalDateTime.now(), batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<OutboxMessage> delivered = publish(batch);
+            jdbcTemplate.batchUpdate(DELETE_SQL, delivered, batchSize,
+                    (statement, message) -> statement.setLong(1, message.getId()));
+            
+            LocalDateTime now = LocalDateTime.now();
+            delivered.forEach(message -> lag.record(Duration.between(message.getCreatedAt(), now)));
+            return delivered.size();
+        });
+        int count = published == null ? 0 : published;
+        if (count > 0) {
+            sample.stop(batchDuration);
+            dispatched.increment(count);
+        }
+        return count;
+    }
+    
+    /**
+     * Publishes the batch, falling back to one event at a time when it fails so the events that
+     * can be delivered are. Failed events are scheduled for a retry or dead-lettered.
+     *
+     * @return the events the sink accepted
+     */
+    private List<OutboxMessage> publish(List<Claim> batch) {
+        List<OutboxMessage> messages = new ArrayList<>(batch.size());
+        batch.forEach(claim -> messages.add(claim.message));
+        try {
+            sink.publish(messages);
+            return messages;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0), e);
+                return List.of();
+            }
+            log.debug("Outbox batch of {} failed, publishing its events one at a time", batch.size(), e);
+        }
+        List<OutboxMessage> delivered = new ArrayList<>(batch.size());
+        for (Claim claim : batch) {
+            try {
+                sink.publish(List.of(claim.message));
+                delivered.add(claim.message);
+            } catch (RuntimeException e) {
+                failed(claim, e);
+            }
+        }
+        return delivered;
+    }
+    
+    private void failed(Claim claim, RuntimeException error) {
+        OutboxMessage message = claim.message;
+        int attempts = claim.attempts + 1;
+        String lastError = abbreviate(String.valueOf(error));
+        failures.increment();
+        if (attempts < maxAttempts) {
+            LocalDateTime nextAttempt = LocalDateTime.now()
+                    .plus(Duration.ofMillis(retryBackoffMillis << Math.min(attempts - 1, 6)));
+            jdbcTemplate.update(RETRY_SQL, attempts, nextAttempt, lastError, message.getId());
+            log.warn("Outbox event {} failed on attempt {} of {}, retrying at {}",
+                    message.getId(), attempts, maxAttempts, nextAttempt, error);
+            return;
+        }
+        jdbcTemplate.update(DEAD_LETTER_SQL, message.getId(), message.getEventType().name(),
+                message.getAggregateType(), message.getAggregateId(), message.getAggregateSequence(),
+                message.getPayload(), message.getCreatedAt(), attempts, lastError, LocalDateTime.now());
+        jdbcTemplate.update(DELETE_SQL, message.getId());
+        deadLettered.increment();
+        log.error("Outbox event {} ({} {} #{}) failed {} times, moved to outbox_dead_letters",
+                message.getId(), message.getAggregateType(), message.getAggregateId(),
+                message.getAggregateSequence(), attempts, error);
+    }
+    
+    private static String abbreviate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+    
+    private void drain() {
+        while (running) {
+            int published;
+            try {
+                published = dispatchBatch();
+            } catch (RuntimeException e) {
+                // Claiming or deleting failed, not the sink: the whole batch stays for the next poll
+                log.warn("Outbox dispatch failed, retrying after {} ms", pollIntervalMillis, e);
+                published = 0;
+            }
+            if (published < batchSize && !sleep()) {
+                return;
+            }
+        }
+    }
+    
+    private boolean sleep() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private double countPending() {
+        try {
+            Long pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Long.class);
+            return pending == null ? 0 : pending;
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+    
+    private static class Claim {
+        
+        final OutboxMessage message;
+        // Failed attempts before this claim
+        final int attempts;
+        
+        Claim(OutboxMessage message, int attempts) {
+            this.message = message;
+            this.attempts = attempts;
+        }
+    }
+}
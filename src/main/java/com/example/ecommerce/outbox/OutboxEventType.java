@@ -0,0 +1,5 @@
+package com.example.ecommerce.outbox;
+
+public enum OutboxEventType {
+    ORDER_CREATED, ORDER_STATUS_CHANGED
+}
@@ -0,0 +1,23 @@
+package com.example.ecommerce.outbox;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox row as handed to a sink. {@code id} is unique per event and stable across
+ * redeliveries, so sinks can use it to drop duplicates. {@code aggregateSequence} numbers the
+ * aggregate's events from 1; consumers can use it to detect gaps left by dead-lettered events.
+ */
+@Value
+public class OutboxMessage {
+    
+    long id;
+    OutboxEventType eventType;
+    String aggregateType;
+    long aggregateId;
+    long aggregateSequence;
+    // JSON document
+    String payload;
+    LocalDateTime createdAt;
+}
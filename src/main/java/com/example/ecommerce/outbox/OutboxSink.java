@@ -0,0 +1,16 @@
+package com.example.ecommerce.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for dispatched outbox events. Delivery is at-least-once: a batch is published
+ * before its rows are deleted, so a crash in between republishes it.
+ */
+public interface OutboxSink {
+    
+    /**
+     * Publishes a batch in outbox order. Throwing makes the dispatcher retry the batch's
+     * events one at a time, so a sink may see some of them twice.
+     */
+    void publish(List<OutboxMessage> messages);
+}
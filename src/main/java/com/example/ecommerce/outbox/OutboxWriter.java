@@ -0,0 +1,42 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.entity.OutboxEvent;
+import com.example.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records events in the caller's transaction: they become visible to the dispatcher exactly
+ * when the change they describe commits, and disappear with it on rollback.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxWriter {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * @param aggregateSequence position of this event among the aggregate's events, starting at 1;
+     *                          allocated by the caller under the aggregate's row lock
+     */
+    public void append(OutboxEventType eventType, String aggregateType, Long aggregateId, long aggregateSequence,
+                       Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType.name());
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setAggregateSequence(aggregateSequence);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable: " + eventType, e);
+        }
+        outboxEventRepository.save(event);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ecommerce.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code /actuator/flightrecorder}: POST starts a bounded recording (default 60s, 100 MB) with
+ * the JDK's {@code profile} settings, GET downloads what has been recorded so far, DELETE stops
+ * and discards it. Only one recording runs at a time; with none running the custom events cost
+ * nothing.
+ * <p>
+ * Disabled unless {@code management.endpoint.flightrecorder.enabled=true}, and then only
+ * reachable over HTTP if it is also added to the web exposure, e.g. behind a management port
+ * that is not public: a recording contains SQL, arguments and stack traces.
+ */
+@Component
+@Endpoint(id = "flightrecorder", enableByDefault = false)
+@Slf4j
+public class FlightRecorderEndpoint {
+    
+    private static final Duration MAX_DURATION = Duration.ofMinutes(30);
+    private static final long MAX_SIZE_BYTES = 500L * 1024 * 1024;
+    
+    private Recording recording;
+    
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Integer durationSeconds, @Nullable Integer maxSizeMb)
+            throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return Map.of("started", false, "message", "A recording is already running");
+        }
+        closeRecording();
+        
+        Duration duration = Duration.ofSeconds(durationSeconds == null ? 60 : durationSeconds);
+        if (duration.compareTo(MAX_DURATION) > 0) {
+            duration = MAX_DURATION;
+        }
+        long maxSize = Math.min(MAX_SIZE_BYTES, (maxSizeMb == null ? 100L : maxSizeMb) * 1024 * 1024);
+        
+        recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("ecommerce-on-demand");
+        recording.setDuration(duration);
+        recording.setMaxSize(maxSize);
+        recording.setToDisk(true);
+        recording.enable(OrderPhaseEvent.class);
+        recording.enable(McpToolEvent.class);
+        recording.start();
+        log.info("Started flight recording for {} (max {} bytes)", duration, maxSize);
+        return Map.of("started", true, "durationSeconds", duration.getSeconds(), "maxSizeBytes", maxSize);
+    }
+    
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("ecommerce-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file) {
+            // The dump can be hundreds of MB, so it is removed as soon as the response has streamed it
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+        });
+    }
+    
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        boolean wasRecording = recording != null;
+        closeRecording();
+        return Map.of("stopped", wasRecording);
+    }
+    
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
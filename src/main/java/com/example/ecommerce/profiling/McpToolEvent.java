@@ -0,0 +1,48 @@
+package com.example.ecommerce.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One MCP tool dispatch, from argument binding to the serialized response.
+ */
+@Name("com.example.ecommerce.McpTool")
+@Label("MCP Tool Call")
+@Category({"E-commerce", "MCP"})
+@StackTrace(false)
+public class McpToolEvent extends Event {
+    
+    @Label("Tool")
+    String tool;
+    
+    @Label("Outcome")
+    String outcome;
+    
+    @Label("SQL Statements")
+    int sqlStatements;
+    
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+    
+    public static McpToolEvent begin(String tool) {
+        McpToolEvent event = new McpToolEvent();
+        event.tool = tool;
+        event.begin();
+        return event;
+    }
+    
+    public void finish(String outcome, int sqlStatements, long responseBytes) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.sqlStatements = sqlStatements;
+            this.responseBytes = responseBytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ecommerce.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of {@code OrderService.createOrder}. The event duration of the
+ * {@code reserve_stock} phase includes any time spent waiting for row locks.
+ */
+@Name("com.example.ecommerce.OrderPhase")
+@Label("Order Placement Phase")
+@Category({"E-commerce", "Orders"})
+@StackTrace(false)
+public class OrderPhaseEvent extends Event {
+    
+    @Label("Phase")
+    String phase;
+    
+    @Label("Attempt")
+    @Description("Placement attempt, greater than 1 after a concurrency conflict")
+    int attempt;
+    
+    @Label("Item Count")
+    int itemCount;
+    
+    @Label("Rows Touched")
+    int rowsTouched;
+    
+    public static OrderPhaseEvent begin(String phase, int attempt, int itemCount) {
+        OrderPhaseEvent event = new OrderPhaseEvent();
+        event.phase = phase;
+        event.attempt = attempt;
+        event.itemCount = itemCount;
+        event.begin();
+        return event;
+    }
+    
+    public void finish(int rowsTouched) {
+        end();
+        if (shouldCommit()) {
+            this.rowsTouched = rowsTouched;
+            commit();
+        }
+    }
+}
@@ -1,12 +1,41 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.CustomerDto;
 import com.example.ecommerce.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
+    
+    String DTO_SELECT = "SELECT new com.example.ecommerce.dto.CustomerDto(" +
+            "c.id, c.firstName, c.lastName, c.email, c.phone, c.address, c.createdAt) FROM Customer c";
+    
+    @Query(DTO_SELECT)
+    List<CustomerDto> findAllDtos();
+    
+    @Query(DTO_SELECT + " WHERE c.id IN :ids")
+    List<CustomerDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(DTO_SELECT + " WHERE c.email IN :emails")
+    List<CustomerDto> findDtosByEmailIn(@Param("emails") Collection<String> emails);
+    
+    @Query(DTO_SELECT + " WHERE c.id > :after ORDER BY c.id")
+    List<CustomerDto> findDtosAfter(@Param("after") Long after, Pageable pageable);
+    
+    @Query(DTO_SELECT + " ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CustomerDto> streamAllDtos();
 }
@@ -1,15 +1,61 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderNumber(String orderNumber);
     List<Order> findByCustomerId(Long customerId);
     List<Order> findByStatus(Order.OrderStatus status);
+    
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(Long id);
+    
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findWithItemsByCustomerId(Long customerId);
+    
+    @EntityGraph(attributePaths = "orderItems")
+    @Query("SELECT o FROM Order o")
+    List<Order> findAllWithItems();
+    
+    // Items are not fetch-joined here: collection fetches cannot be paginated in SQL,
+    // they are loaded through hibernate.default_batch_fetch_size instead
+    @Query("SELECT o FROM Order o WHERE o.id > :after ORDER BY o.id")
+    List<Order> findPageAfter(@Param("after") Long after, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId AND o.id > :after ORDER BY o.id")
+    List<Order> findPageByCustomerIdAfter(@Param("customerId") Long customerId, @Param("after") Long after,
+                                          Pageable pageable);
+    
+    // Items come in the same rows; ordering by the root id lets Hibernate assemble each order
+    // from consecutive rows while scrolling
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems ORDER BY o.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Order> streamAll();
+    
+    // Allocates the next outbox sequence for an order. The update holds the row lock until
+    // commit, so concurrent status changes get consecutive sequences in commit order
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.eventSequence = o.eventSequence + 1 WHERE o.id = :id")
+    int incrementEventSequence(@Param("id") Long id);
+    
+    @Query("SELECT o.eventSequence FROM Order o WHERE o.id = :id")
+    long findEventSequenceById(@Param("id") Long id);
 }
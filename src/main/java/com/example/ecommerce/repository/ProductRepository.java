@@ -1,15 +1,65 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findBySku(String sku);
     List<Product> findByCategory(String category);
-    List<Product> findByNameContainingIgnoreCase(String name);
+    
+    String DTO_SELECT = "SELECT new com.example.ecommerce.dto.ProductDto(" +
+            "p.id, p.name, p.description, p.price, p.category, p.sku, p.stockQuantity, p.createdAt) FROM Product p";
+    
+    @Query(DTO_SELECT)
+    List<ProductDto> findAllDtos();
+    
+    @Query(DTO_SELECT + " WHERE p.category = :category")
+    List<ProductDto> findDtosByCategory(@Param("category") String category);
+    
+    @Query(DTO_SELECT + " WHERE p.id > :after ORDER BY p.id")
+    List<ProductDto> findDtosAfter(@Param("after") Long after, Pageable pageable);
+    
+    @Query(DTO_SELECT + " WHERE p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(DTO_SELECT + " WHERE p.sku IN :skus")
+    List<ProductDto> findDtosBySkuIn(@Param("skus") Collection<String> skus);
+    
+    // Served by the pg_trgm GiST index on lower(name) (db/migration/V7): the distance operator <->
+    // is a KNN index order, so the scan stops after offset + limit matches instead of ranking them all.
+    // :pattern is the lower-cased query with LIKE wildcards escaped.
+    @Query(value = "SELECT p.id FROM products p WHERE lower(p.name) LIKE '%' || :pattern || '%' ESCAPE '\\' " +
+            "ORDER BY lower(p.name) <-> lower(:name), p.id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Long> searchIdsByTrigram(@Param("name") String name, @Param("pattern") String pattern,
+                                  @Param("limit") int limit, @Param("offset") int offset);
+    
+    // For queries too short to have a trigram. Served by the "C"-collated index on (lower(name), id)
+    // (db/migration/V12), which returns rows already in this order. The prefix is a range rather than
+    // a LIKE so that generic plans for the prepared statement can use the index too; U+10FFFF is the
+    // highest code point, so every name starting with :prefix sorts below the upper bound.
+    @Query(value = "SELECT p.id FROM products p WHERE lower(p.name) COLLATE \"C\" >= :prefix " +
+            "AND lower(p.name) COLLATE \"C\" < :prefix || chr(1114111) " +
+            "ORDER BY lower(p.name) COLLATE \"C\", p.id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Long> searchIdsByNamePrefix(@Param("prefix") String prefix,
+                                     @Param("limit") int limit, @Param("offset") int offset);
+    
+    @Query(DTO_SELECT + " ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ProductDto> streamAllDtos();
 }
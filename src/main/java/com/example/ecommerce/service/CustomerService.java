@@ -3,19 +3,32 @@ package com.example.ecommerce.service;
 import com.example.ecommerce.dto.CustomerDto;
 import com.example.ecommerce.entity.Customer;
 import com.example.ecommerce.repository.CustomerRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "ecommerce.service", histogram = true)
 @RequiredArgsConstructor
 @Transactional
 public class CustomerService {
     
+    private static final String IDEMPOTENT_OPERATION = "create_customer";
+    
     private final CustomerRepository customerRepository;
+    private final RequestCoalescer requestCoalescer;
+    private final IdempotencyService idempotencyService;
     
     public CustomerDto createCustomer(CustomerDto customerDto) {
         Customer customer = mapToEntity(customerDto);
@@ -23,22 +36,65 @@ public class CustomerService {
         return mapToDto(savedCustomer);
     }
     
+    /**
+     * Creates the customer at most once per idempotency key. The key is claimed in the
+     * transaction that writes the customer, so the call must not join an outer one that would
+     * commit only after the result is shared.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CustomerDto createCustomer(CustomerDto customerDto, String idempotencyKey) {
+        return idempotencyService.execute(IDEMPOTENT_OPERATION, idempotencyKey, customerDto, CustomerDto.class,
+                () -> createCustomer(customerDto));
+    }
+    
+    // SUPPORTS: coalesced callers wait without holding a connection; the repository opens its own transaction
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public CustomerDto getCustomerById(Long id) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
-        return mapToDto(customer);
+        return requestCoalescer.execute(RequestCoalescer.key("customer", "id", id), () -> mapToDto(
+                customerRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id))));
     }
     
+    @Transactional(readOnly = true)
     public List<CustomerDto> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findAllDtos();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<CustomerDto> getCustomersAfter(Long afterId, int limit) {
+        return customerRepository.findDtosAfter(afterId == null ? 0L : afterId, PageRequest.ofSize(limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamAllCustomers(Consumer<CustomerDto> consumer) {
+        try (Stream<CustomerDto> customers = customerRepository.streamAllDtos()) {
+            customers.forEach(consumer);
+        }
     }
     
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public CustomerDto getCustomerByEmail(String email) {
-        Customer customer = customerRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Customer not found with email: " + email));
-        return mapToDto(customer);
+        return requestCoalescer.execute(RequestCoalescer.key("customer", "email", email), () -> mapToDto(
+                customerRepository.findByEmail(email)
+                        .orElseThrow(() -> new RuntimeException("Customer not found with email: " + email))));
+    }
+    
+    @Transactional(readOnly = true)
+    public Map<Long, CustomerDto> getCustomersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return customerRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(CustomerDto::getId, Function.identity()));
+    }
+    
+    @Transactional(readOnly = true)
+    public Map<String, CustomerDto> getCustomersByEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+        return customerRepository.findDtosByEmailIn(emails).stream()
+                .collect(Collectors.toMap(CustomerDto::getEmail, Function.identity()));
     }
     
     private Customer mapToEntity(CustomerDto dto) {
@@ -59,7 +115,8 @@ public class CustomerService {
         return customer;
     }
     
-    private CustomerDto mapToDto(Customer customer) {
+    // Package-private for the JMH benchmarks
+    CustomerDto mapToDto(Customer customer) {
         CustomerDto dto = new CustomerDto();
         dto.setId(customer.getId());
         dto.setFirstName(customer.getFirstName());
@@ -67,15 +124,7 @@ public class CustomerService {
         dto.setEmail(customer.getEmail());
         dto.setPhone(customer.getPhone());
         dto.setCreatedAt(customer.getCreatedAt());
-        
-        CustomerDto.AddressDto addressDto = new CustomerDto.AddressDto();
-        addressDto.setStreet(customer.getAddress().getStreet());
-        addressDto.setCity(customer.getAddress().getCity());
-        addressDto.setState(customer.getAddress().getState());
-        addressDto.setZipCode(customer.getAddress().getZipCode());
-        addressDto.setCountry(customer.getAddress().getCountry());
-        dto.setAddress(addressDto);
-        
+        dto.setAddress(CustomerDto.AddressDto.from(customer.getAddress()));
         return dto;
     }
 }
@@ -0,0 +1,16 @@
+package com.example.ecommerce.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Another request with the same idempotency key has not finished yet. The client should retry
+ * later with the same key, which then returns the first request's result.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super("Request with idempotency key " + idempotencyKey + " is still in progress");
+    }
+}
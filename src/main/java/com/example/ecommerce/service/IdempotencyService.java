@@ -0,0 +1,295 @@
+package com.example.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per idempotency key. The key's row in {@code idempotency_keys} is
+ * claimed, the write runs and its result is stored, all in one transaction: a failed or
+ * interrupted write leaves no trace of the key, and a committed key always has its result.
+ * Results are also kept in a bounded in-memory cache; both expire after {@code ttl}.
+ *
+ * <p>Concurrent duplicates in this JVM wait on the first call. A duplicate on another instance
+ * blocks on the claimed row until the first transaction ends, then replays its result or claims
+ * the key itself if it rolled back. Either way a duplicate that waits longer than the lock
+ * timeout fails with {@link IdempotencyKeyInProgressException} rather than running the write.
+ */
+@Component
+@Slf4j
+public class IdempotencyService {
+    
+    static final int MAX_KEY_LENGTH = 200;
+    // Expired rows are purged in bulk once every this many new keys
+    private static final int PURGE_EVERY = 1000;
+    
+    // Waits for a concurrent claim of the same key to commit or roll back, then inserts nothing
+    // or claims the key
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at, expires_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String SELECT_SQL =
+            "SELECT request_hash, response FROM idempotency_keys WHERE idempotency_key = ?";
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET response = ? WHERE idempotency_key = ?";
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at < ?";
+    private static final String PURGE_SQL = "DELETE FROM idempotency_keys WHERE expires_at < ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long lockTimeoutMillis;
+    private final Cache<String, StoredResponse> responses;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong claims = new AtomicLong();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter waited;
+    private volatile Boolean postgres;
+    
+    public IdempotencyService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${ecommerce.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${ecommerce.idempotency.max-entries:10000}") long maxEntries,
+                              @Value("${ecommerce.idempotency.lock-timeout-ms:30000}") long lockTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        this.executed = Counter.builder("idempotency.requests").tag("outcome", "executed")
+                .description("Keyed writes that ran").register(meterRegistry);
+        this.replayed = Counter.builder("idempotency.requests").tag("outcome", "replayed")
+                .description("Keyed writes answered from a stored result").register(meterRegistry);
+        this.waited = Counter.builder("idempotency.requests").tag("outcome", "waited")
+                .description("Keyed writes that waited on an identical in-flight call").register(meterRegistry);
+    }
+    
+    /**
+     * Runs {@code action} in a transaction unless a result for {@code operation} and
+     * {@code idempotencyKey} already exists, in which case that result is returned. Without a
+     * key the action simply runs in a transaction. The action joins the transaction, so it must
+     * not suspend it or commit on its own.
+     *
+     * @param request the request the key was issued for; replays must match it
+     */
+    public <T> T execute(String operation, String idempotencyKey, Object request, Class<T> resultType,
+                         Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key longer than " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String storageKey = operation + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        StoredResponse cached = responses.getIfPresent(storageKey);
+        if (cached != null) {
+            replayed.increment();
+            return replay(idempotencyKey, cached, requestHash, resultType);
+        }
+        
+        CompletableFuture<StoredResponse> flight = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(storageKey, flight);
+        if (existing != null) {
+            waited.increment();
+            return replay(idempotencyKey, await(idempotencyKey, existing), requestHash, resultType);
+        }
+        
+        try {
+            Execution<T> execution = transactionTemplate.execute(status -> {
+                StoredResponse stored = claimOrLoad(idempotencyKey, storageKey, requestHash);
+                if (stored != null) {
+                    return new Execution<T>(stored, null, false);
+                }
+                T result = action.get();
+                stored = new StoredResponse(requestHash, serialize(result));
+                jdbcTemplate.update(COMPLETE_SQL, stored.getBody(), storageKey);
+                return new Execution<>(stored, result, true);
+            });
+            // Committed: the result may now be shared
+            responses.put(storageKey, execution.stored);
+            flight.complete(execution.stored);
+            if (execution.executed) {
+                executed.increment();
+                return execution.result;
+            }
+            replayed.increment();
+            return replay(idempotencyKey, execution.stored, requestHash, resultType);
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(storageKey, flight);
+        }
+    }
+    
+    /**
+     * Claims the key by inserting its row in the current transaction, or returns the stored
+     * result if another request already committed it.
+     *
+     * @return the stored result, or null if this transaction now owns the key
+     */
+    private StoredResponse claimOrLoad(String idempotencyKey, String storageKey, String requestHash) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, storageKey, Timestamp.valueOf(now));
+            int claimed;
+            boolean limited = limitLockWait(true);
+            try {
+                claimed = jdbcTemplate.update(CLAIM_SQL, storageKey, requestHash,
+                        Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+            } catch (PessimisticLockingFailureException e) {
+                // Still claimed by an open transaction after the lock timeout
+                throw new IdempotencyKeyInProgressException(idempotencyKey);
+            }
+            if (limited) {
+                // The write itself keeps the usual lock timeout
+                limitLockWait(false);
+            }
+            if (claimed == 1) {
+                purgeExpiredPeriodically(now);
+                return null;
+            }
+            
+            List<StoredResponse> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredResponse(
+                    rs.getString("request_hash"), rs.getString("response")), storageKey);
+            if (rows.isEmpty()) {
+                // Expired and purged since the insert; claim it again
+                continue;
+            }
+            StoredResponse row = rows.get(0);
+            if (row.getBody() == null) {
+                // Committed rows always have a result; treat anything else as a claim in progress
+                throw new IdempotencyKeyInProgressException(idempotencyKey);
+            }
+            return row;
+        }
+    }
+    
+    /**
+     * Caps how long the claim waits for a concurrent transaction holding the same key, or
+     * restores the default. Only on PostgreSQL; other databases apply their own lock timeout.
+     *
+     * @return whether the timeout was changed
+     */
+    private boolean limitLockWait(boolean limit) {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class));
+        }
+        if (!postgres) {
+            return false;
+        }
+        jdbcTemplate.execute(limit ? "SET LOCAL lock_timeout = " + lockTimeoutMillis : "SET LOCAL lock_timeout TO DEFAULT");
+        return true;
+    }
+    
+    private <T> T replay(String idempotencyKey, StoredResponse stored, String requestHash, Class<T> resultType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(
+                    "Idempotency key " + idempotencyKey + " was already used for a different request");
+        }
+        try {
+            return objectMapper.readValue(stored.getBody(), resultType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored result for idempotency key " + idempotencyKey + " is unreadable", e);
+        }
+    }
+    
+    private StoredResponse await(String idempotencyKey, CompletableFuture<StoredResponse> flight) {
+        try {
+            return flight.get(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for idempotency key: " + idempotencyKey, e);
+        }
+    }
+    
+    private void purgeExpiredPeriodically(LocalDateTime now) {
+        if (claims.incrementAndGet() % PURGE_EVERY == 0) {
+            int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(now));
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+    
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Request cannot be fingerprinted", e);
+        }
+    }
+    
+    private String serialize(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Result cannot be stored for replay", e);
+        }
+    }
+    
+    @lombok.Value
+    private static class StoredResponse {
+        String requestHash;
+        String body;
+    }
+    
+    private static class Execution<T> {
+        
+        final StoredResponse stored;
+        final T result;
+        // False when the transaction found a result committed by another request
+        final boolean executed;
+        
+        Execution(StoredResponse stored, T result, boolean executed) {
+            this.stored = stored;
+            this.result = result;
+            this.executed = executed;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ecommerce.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class InventoryService {
+    
+    private static final String RESERVE_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1 " +
+            "WHERE id = ? AND stock_quantity >= ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Atomically decrements stock for every product in one JDBC batch. Each row is only
+     * updated if enough stock remains, so concurrent reservations can never oversell.
+     *
+     * @return ids of products that could not be reserved; empty if all succeeded
+     */
+    public List<Long> reserve(Map<Long, Integer> quantitiesByProductId) {
+        // Update rows in id order so concurrent orders lock them in the same sequence
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesByProductId).entrySet());
+        
+        int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+        });
+        
+        List<Long> rejected = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    rejected.add(entries.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return rejected;
+    }
+}
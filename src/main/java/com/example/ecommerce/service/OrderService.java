@@ -2,93 +2,244 @@ package com.example.ecommerce.service;
 
 import com.example.ecommerce.dto.OrderDto;
 import com.example.ecommerce.entity.*;
+import com.example.ecommerce.outbox.OutboxEventType;
+import com.example.ecommerce.outbox.OutboxWriter;
+import com.example.ecommerce.profiling.OrderPhaseEvent;
+import com.example.ecommerce.repository.CustomerRepository;
 import com.example.ecommerce.repository.OrderRepository;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.ordernumber.OrderNumberGenerator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "ecommerce.service", histogram = true)
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class OrderService {
     
+    private static final String OUTBOX_AGGREGATE = "order";
+    private static final String IDEMPOTENT_OPERATION = "create_order";
+    
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
-    private final CustomerService customerService;
+    private final CustomerRepository customerRepository;
+    private final InventoryService inventoryService;
+    private final ProductService productService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final EntityManager entityManager;
+    private final OutboxWriter outboxWriter;
+    private final IdempotencyService idempotencyService;
+    
+    @Value("${ecommerce.orders.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${ecommerce.orders.retry-backoff-ms:10}")
+    private long backoffMillis;
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderDto createOrder(OrderDto orderDto) {
+        return createOrder(orderDto, null);
+    }
+    
+    /**
+     * Places the order at most once per idempotency key. Each attempt claims the key in the
+     * transaction that places the order, so a conflict rolls both back and the retry claims it
+     * again.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderDto createOrder(OrderDto orderDto, String idempotencyKey) {
+        for (int attempt = 1; ; attempt++) {
+            int currentAttempt = attempt;
+            try {
+                return idempotencyService.execute(IDEMPOTENT_OPERATION, idempotencyKey, orderDto, OrderDto.class,
+                        () -> placeOrder(orderDto, currentAttempt));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Order placement conflict on attempt {}, retrying", attempt, e);
+                backOff(attempt);
+            }
+        }
+    }
+    
+    private OrderDto placeOrder(OrderDto orderDto, int attempt) {
+        int itemCount = orderDto.getOrderItems().size();
+        
         // Validate customer exists
-        customerService.getCustomerById(orderDto.getCustomerId());
+        OrderPhaseEvent phase = OrderPhaseEvent.begin("validate_customer", attempt, itemCount);
+        boolean customerExists = customerRepository.existsById(orderDto.getCustomerId());
+        phase.finish(customerExists ? 1 : 0);
+        if (!customerExists) {
+            throw new RuntimeException("Customer not found with id: " + orderDto.getCustomerId());
+        }
         
         Order order = new Order();
-        order.setCustomer(new Customer());
-        order.getCustomer().setId(orderDto.getCustomerId());
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
+        order.setCustomer(customerRepository.getReferenceById(orderDto.getCustomerId()));
         order.setStatus(Order.OrderStatus.PENDING);
+        // ORDER_CREATED is the order's first event
+        order.setEventSequence(1);
+        order.setOrderItems(new ArrayList<>(orderDto.getOrderItems().size()));
+        
+        // Load every referenced product with a single IN query
+        Map<Long, Integer> requestedQuantities = new LinkedHashMap<>();
+        for (OrderDto.OrderItemDto itemDto : orderDto.getOrderItems()) {
+            requestedQuantities.merge(itemDto.getProductId(), itemDto.getQuantity(), Integer::sum);
+        }
+        phase = OrderPhaseEvent.begin("load_products", attempt, itemCount);
+        Map<Long, Product> products = productRepository.findAllById(requestedQuantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        phase.finish(products.size());
+        
+        requestedQuantities.keySet().forEach(productId -> {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+        });
+        
+        // Conditional decrement is the source of truth for stock, not the loaded entities
+        phase = OrderPhaseEvent.begin("reserve_stock", attempt, itemCount);
+        List<Long> rejected = inventoryService.reserve(requestedQuantities);
+        phase.finish(requestedQuantities.size() - rejected.size());
+        if (!rejected.isEmpty()) {
+            Long productId = rejected.get(0);
+            throw new InsufficientStockException(productId, products.get(productId).getName());
+        }
+        products.values().forEach(product -> {
+            productService.evictFromCache(product.getId(), product.getSku());
+            // The batch update bypassed the persistence context, so these copies hold the old stock
+            entityManager.detach(product);
+        });
         
         BigDecimal totalAmount = BigDecimal.ZERO;
         
         for (OrderDto.OrderItemDto itemDto : orderDto.getOrderItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + itemDto.getProductId()));
-            
-            // Check stock availability
-            if (product.getStockQuantity() < itemDto.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
-            }
+            Product product = products.get(itemDto.getProductId());
             
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setProduct(product);
+            orderItem.setProduct(productRepository.getReferenceById(product.getId()));
             orderItem.setQuantity(itemDto.getQuantity());
             orderItem.setUnitPrice(product.getPrice());
             orderItem.calculateTotalPrice();
             
             order.getOrderItems().add(orderItem);
             totalAmount = totalAmount.add(orderItem.getTotalPrice());
-            
-            // Update stock
-            product.setStockQuantity(product.getStockQuantity() - itemDto.getQuantity());
-            productRepository.save(product);
         }
         
         order.setTotalAmount(totalAmount);
-        Order savedOrder = orderRepository.save(order);
+        // Flush here so the order and item insert batches are attributed to this phase
+        phase = OrderPhaseEvent.begin("save_order", attempt, itemCount);
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        phase.finish(1 + savedOrder.getOrderItems().size());
         
-        return mapToDto(savedOrder);
+        OrderDto result = mapToDto(savedOrder);
+        outboxWriter.append(OutboxEventType.ORDER_CREATED, OUTBOX_AGGREGATE, savedOrder.getId(),
+                savedOrder.getEventSequence(), result);
+        return result;
+    }
+    
+    private void backOff(int attempt) {
+        long ceiling = backoffMillis << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying order placement", e);
+        }
     }
     
+    @Transactional(readOnly = true)
     public OrderDto getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         return mapToDto(order);
     }
     
+    @Transactional(readOnly = true)
     public List<OrderDto> getAllOrders() {
-        return orderRepository.findAll().stream()
+        return orderRepository.findAllWithItems().stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrdersAfter(Long afterId, int limit) {
+        return orderRepository.findPageAfter(afterId == null ? 0L : afterId, PageRequest.ofSize(limit)).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<OrderDto> consumer) {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            orders.forEach(order -> {
+                consumer.accept(mapToDto(order));
+                // Keep the persistence context from growing with the result set
+                entityManager.detach(order);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByCustomerId(Long customerId) {
-        return orderRepository.findByCustomerId(customerId).stream()
+        return orderRepository.findWithItemsByCustomerId(customerId).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrdersByCustomerId(Long customerId, Long afterId, int limit) {
+        return orderRepository.findPageByCustomerIdAfter(customerId, afterId == null ? 0L : afterId,
+                        PageRequest.ofSize(limit)).stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
     
     public OrderDto updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
         Order savedOrder = orderRepository.save(order);
+        if (previousStatus != status) {
+            Map<String, Object> change = new LinkedHashMap<>();
+            change.put("orderId", savedOrder.getId());
+            change.put("orderNumber", savedOrder.getOrderNumber());
+            change.put("previousStatus", previousStatus);
+            change.put("status", status);
+            orderRepository.incrementEventSequence(orderId);
+            long sequence = orderRepository.findEventSequenceById(orderId);
+            outboxWriter.append(OutboxEventType.ORDER_STATUS_CHANGED, OUTBOX_AGGREGATE, savedOrder.getId(),
+                    sequence, change);
+        }
         return mapToDto(savedOrder);
     }
     
-    private OrderDto mapToDto(Order order) {
+    // Package-private for the JMH benchmarks
+    OrderDto mapToDto(Order order) {
         OrderDto dto = new OrderDto();
         dto.setId(order.getId());
         dto.setOrderNumber(order.getOrderNumber());
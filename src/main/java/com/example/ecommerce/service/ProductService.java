@@ -1,56 +1,174 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheInvalidationPublisher;
+import com.example.ecommerce.cache.InvalidationEvent;
+import com.example.ecommerce.config.CacheConfiguration;
+import com.example.ecommerce.config.ReadWriteRoutingDataSource;
 import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.catalog.CatalogSnapshot;
+import com.example.ecommerce.service.search.ProductSearchEngine;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "ecommerce.service", histogram = true)
 @RequiredArgsConstructor
 @Transactional
 public class ProductService {
     
     private final ProductRepository productRepository;
+    private final ProductSearchEngine productSearchEngine;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final CatalogSnapshot catalogSnapshot;
+    private final RequestCoalescer requestCoalescer;
     
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS_BY_ID, key = "#result.id"),
+        @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS_BY_SKU, key = "#result.sku")
+    })
     public ProductDto createProduct(ProductDto productDto) {
         Product product = mapToEntity(productDto);
         Product savedProduct = productRepository.save(product);
+        indexAfterCommit(savedProduct.getId(), savedProduct.getName());
+        invalidationPublisher.publish(InvalidationEvent.EntityType.PRODUCT, savedProduct.getId(), savedProduct.getSku());
         return mapToDto(savedProduct);
     }
     
+    // SUPPORTS: snapshot hits never take a connection; repository calls open their own read-only transaction.
+    // Once the snapshot is ready it answers instead of the cache, so the cache is neither read nor filled.
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Cacheable(cacheNames = CacheConfiguration.PRODUCTS_BY_ID, key = "#id", condition = "!@catalogSnapshot.isReady()")
     public ProductDto getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        return mapToDto(product);
+        if (catalogSnapshot.isReady()) {
+            Optional<ProductDto> cached = catalogSnapshot.findById(id);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        // Fills the cache, so read from the primary: a lagging replica could cache an evicted row again
+        return requestCoalescer.execute(RequestCoalescer.key("product", "id", id), () -> mapToDto(
+                ReadWriteRoutingDataSource.onPrimary(() -> productRepository.findById(id))
+                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + id))));
     }
     
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<ProductDto> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findAll();
+        }
+        return productRepository.findAllDtos();
+    }
+    
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductDto> getProductsAfter(Long afterId, int limit) {
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findAfter(afterId == null ? 0L : afterId, limit);
+        }
+        return productRepository.findDtosAfter(afterId == null ? 0L : afterId, PageRequest.ofSize(limit));
     }
     
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductDto> consumer) {
+        try (Stream<ProductDto> products = productRepository.streamAllDtos()) {
+            products.forEach(consumer);
+        }
+    }
+    
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<ProductDto> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findByCategory(category);
+        }
+        return productRepository.findDtosByCategory(category);
     }
     
-    public List<ProductDto> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name).stream()
-                .map(this::mapToDto)
+    @Transactional(readOnly = true)
+    public List<ProductDto> searchProductsByName(String name, int offset, int limit) {
+        List<Long> ids = productSearchEngine.search(name == null ? "" : name, offset, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductDto> productsById = productRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        // Keep the engine's relevance order
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Cacheable(cacheNames = CacheConfiguration.PRODUCTS_BY_SKU, key = "#sku", condition = "!@catalogSnapshot.isReady()")
     public ProductDto getProductBySku(String sku) {
-        Product product = productRepository.findBySku(sku)
-                .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
-        return mapToDto(product);
+        if (catalogSnapshot.isReady()) {
+            Optional<ProductDto> cached = catalogSnapshot.findBySku(sku);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        return requestCoalescer.execute(RequestCoalescer.key("product", "sku", sku), () -> mapToDto(
+                ReadWriteRoutingDataSource.onPrimary(() -> productRepository.findBySku(sku))
+                        .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku))));
+    }
+    
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS_BY_ID, key = "#id"),
+        @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS_BY_SKU, key = "#sku")
+    })
+    public void evictFromCache(Long id, String sku) {
+        // Local eviction is performed by the annotations once the surrounding transaction commits
+        invalidationPublisher.publish(InvalidationEvent.EntityType.PRODUCT, id, sku);
+    }
+    
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Map<Long, ProductDto> getProductsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        if (catalogSnapshot.isReady()) {
+            Map<Long, ProductDto> cached = catalogSnapshot.findByIds(ids);
+            if (cached.size() == ids.size()) {
+                return cached;
+            }
+        }
+        return productRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+    }
+    
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Map<String, ProductDto> getProductsBySkus(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return Map.of();
+        }
+        if (catalogSnapshot.isReady()) {
+            Map<String, ProductDto> cached = catalogSnapshot.findBySkus(skus);
+            if (cached.size() == skus.size()) {
+                return cached;
+            }
+        }
+        return productRepository.findDtosBySkuIn(skus).stream()
+                .collect(Collectors.toMap(ProductDto::getSku, Function.identity()));
     }
     
     private Product mapToEntity(ProductDto dto) {
@@ -64,7 +182,8 @@ public class ProductService {
         return product;
     }
     
-    private ProductDto mapToDto(Product product) {
+    // Package-private for the JMH benchmarks
+    ProductDto mapToDto(Product product) {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
@@ -76,4 +195,18 @@ public class ProductService {
         dto.setCreatedAt(product.getCreatedAt());
         return dto;
     }
+    
+    // A search engine must never return a product that was rolled back
+    private void indexAfterCommit(Long id, String name) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    productSearchEngine.onProductSaved(id, name);
+                }
+            });
+        } else {
+            productSearchEngine.onProductSaved(id, name);
+        }
+    }
 }
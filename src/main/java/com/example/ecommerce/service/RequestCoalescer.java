@@ -0,0 +1,92 @@
+package com.example.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of reads: concurrent callers asking for the same key share one
+ * in-flight call and its result or exception. Joining or starting a flight is a single
+ * {@code putIfAbsent}, so no locks are taken; waiters block for at most {@code max-wait-ms}.
+ * <p>
+ * Services wrap their database loads, behind any cache or snapshot hit, with keys from
+ * {@link #key}. Callers inside a transaction bypass coalescing: they may have uncommitted
+ * writes to the entity, so they must neither share another caller's result nor hand theirs out.
+ */
+@Component
+public class RequestCoalescer {
+    
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitMillis;
+    private final Counter executed;
+    private final Counter coalesced;
+    
+    public RequestCoalescer(@Value("${ecommerce.coalescing.max-wait-ms:5000}") long maxWaitMillis,
+                            MeterRegistry meterRegistry) {
+        this.maxWaitMillis = maxWaitMillis;
+        this.executed = Counter.builder("coalescer.calls").tag("outcome", "executed")
+                .description("Reads that went to the service").register(meterRegistry);
+        this.coalesced = Counter.builder("coalescer.calls").tag("outcome", "coalesced")
+                .description("Reads that joined an identical in-flight call").register(meterRegistry);
+    }
+    
+    /**
+     * The flight key for loading one {@code entity} by {@code attribute}, e.g. product by sku.
+     */
+    public static String key(String entity, String attribute, Object value) {
+        return entity + ':' + attribute + ':' + value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return call.get();
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(key, existing);
+        }
+        
+        executed.increment();
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    private Object await(String key, CompletableFuture<Object> flight) {
+        try {
+            return flight.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out after " + maxWaitMillis + "ms waiting for in-flight lookup: " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for in-flight lookup: " + key, e);
+        }
+    }
+}
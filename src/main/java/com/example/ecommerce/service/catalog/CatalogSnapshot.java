@@ -0,0 +1,512 @@
+package com.example.ecommerce.service.catalog;
+
+import com.example.ecommerce.cache.InvalidationBus;
+import com.example.ecommerce.cache.InvalidationEvent;
+import com.example.ecommerce.config.ReadWriteRoutingDataSource;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The whole product catalog in memory, for serving product reads without JDBC. Opt-in with
+ * {@code ecommerce.catalog.snapshot.enabled=true}.
+ *
+ * <p>Products are stored column by column in primitive and string arrays indexed by slot;
+ * prices are kept as unscaled cents and timestamps as epoch microseconds. Lookups go through a
+ * primitive id → slot hash map, a SKU → slot map, and one {@link BitSet} of slots per
+ * category. Slots are never reused, and listings come back in id order like the repository
+ * queries: {@code idOrder} lists slots by id as they are appended, and the rare id below the
+ * highest known one waits in {@code lateSlots} until enough of them are merged in at once.
+ *
+ * <p>The snapshot is loaded after startup and kept current by a background refresher, which
+ * reloads products named by PRODUCT invalidation events. Those cover creates, stock reservations
+ * and bulk imports on every node. Until the first load completes, {@link #isReady()} is false and
+ * callers should query the database. All of its reads go to the primary, so a lagging replica
+ * cannot bring back a row the snapshot was just told had changed.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+    
+    private static final int PRICE_SCALE = 2;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int REFRESH_BATCH_SIZE = 500;
+    private static final int MIN_LATE_SLOTS_TO_MERGE = 1024;
+    // Approximate per-object overheads with compressed oops, for the footprint estimate
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+    private static final int SKU_ENTRY_OVERHEAD_BYTES = 32 + 16;
+    private static final int LATE_ENTRY_OVERHEAD_BYTES = 40 + 16 + 16;
+    
+    private final ProductRepository productRepository;
+    private final InvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final int pageSize;
+    private final long refreshIntervalMillis;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] ids = new long[0];
+    private String[] names = new String[0];
+    private String[] descriptions = new String[0];
+    private String[] skus = new String[0];
+    private int[] categories = new int[0];
+    private long[] pricesInCents = new long[0];
+    private int[] stockQuantities = new int[0];
+    private long[] createdAtMicros = new long[0];
+    private int[] idOrder = new int[0];
+    private int orderedCount;
+    private final TreeMap<Long, Integer> lateSlots = new TreeMap<>();
+    private int size;
+    private long maxId;
+    private long stringBytes;
+    private final BitSet live = new BitSet();
+    private final LongIntHashMap slotById = new LongIntHashMap(1024);
+    private final Map<String, Integer> slotBySku = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private final List<BitSet> categorySlots = new ArrayList<>();
+    
+    private final Set<Long> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+    private ScheduledExecutorService refresher;
+    
+    public CatalogSnapshot(ProductRepository productRepository, InvalidationBus invalidationBus,
+                           MeterRegistry meterRegistry,
+                           @Value("${ecommerce.catalog.snapshot.enabled:false}") boolean enabled,
+                           @Value("${ecommerce.catalog.snapshot.load-page-size:10000}") int pageSize,
+                           @Value("${ecommerce.catalog.snapshot.refresh-interval-ms:100}") long refreshIntervalMillis) {
+        this.productRepository = productRepository;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        
+        if (enabled) {
+            Gauge.builder("catalog.snapshot.products", this, CatalogSnapshot::size)
+                    .description("Products held in the in-memory catalog")
+                    .register(meterRegistry);
+            Gauge.builder("catalog.snapshot.heap", this, CatalogSnapshot::estimatedHeapBytes)
+                    .description("Estimated heap used by the in-memory catalog")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("catalog.snapshot.pending", pendingRefresh, Set::size)
+                    .description("Changed products waiting to be reloaded")
+                    .register(meterRegistry);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        // Subscribe first so changes committed during the load are reloaded afterwards
+        invalidationBus.subscribe(event -> {
+            if (event.getEntityType() == InvalidationEvent.EntityType.PRODUCT && event.getId() != null) {
+                pendingRefresh.add(event.getId());
+            }
+        });
+        
+        long start = System.nanoTime();
+        List<ProductDto> page;
+        long after = 0;
+        do {
+            long from = after;
+            page = ReadWriteRoutingDataSource.onPrimary(
+                    () -> productRepository.findDtosAfter(from, PageRequest.ofSize(pageSize)));
+            apply(page);
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+        ready = true;
+        log.info("Loaded {} products into the catalog snapshot in {} ms (~{} MB)", size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), estimatedHeapBytes() >> 20);
+        
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshPending, refreshIntervalMillis, refreshIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public Optional<ProductDto> findById(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            return slot >= 0 && live.get(slot) ? Optional.of(toDto(slot)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Optional<ProductDto> findBySku(String sku) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotBySku.get(sku);
+            return slot != null ? Optional.of(toDto(slot)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Map<Long, ProductDto> findByIds(Collection<Long> productIds) {
+        lock.readLock().lock();
+        try {
+            Map<Long, ProductDto> products = new LinkedHashMap<>();
+            for (Long id : productIds) {
+                int slot = slotById.get(id);
+                if (slot >= 0 && live.get(slot)) {
+                    products.put(id, toDto(slot));
+                }
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Map<String, ProductDto> findBySkus(Collection<String> productSkus) {
+        lock.readLock().lock();
+        try {
+            Map<String, ProductDto> products = new LinkedHashMap<>();
+            for (String sku : productSkus) {
+                Integer slot = slotBySku.get(sku);
+                if (slot != null) {
+                    products.put(sku, toDto(slot));
+                }
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @return the category's products in id order
+     */
+    public List<ProductDto> findByCategory(String category) {
+        lock.readLock().lock();
+        try {
+            Integer code = categoryCodes.get(category);
+            if (code == null) {
+                return List.of();
+            }
+            BitSet slots = categorySlots.get(code);
+            int[] matches = new int[slots.cardinality()];
+            int count = 0;
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                matches[count++] = slot;
+            }
+            // Slots are allocated in id order unless ids arrived out of order
+            long[] matchIds = new long[count];
+            boolean sorted = true;
+            for (int i = 0; i < count; i++) {
+                matchIds[i] = ids[matches[i]];
+                sorted &= i == 0 || matchIds[i - 1] < matchIds[i];
+            }
+            List<ProductDto> products = new ArrayList<>(count);
+            if (sorted) {
+                for (int i = 0; i < count; i++) {
+                    products.add(toDto(matches[i]));
+                }
+            } else {
+                Arrays.sort(matchIds);
+                for (long id : matchIds) {
+                    products.add(toDto(slotById.get(id)));
+                }
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public List<ProductDto> findAll() {
+        return findAfter(0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Keyset page: up to {@code limit} products with an id above {@code afterId}, in id order.
+     */
+    public List<ProductDto> findAfter(long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int low = 0;
+            int high = orderedCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ids[idOrder[middle]] <= afterId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            // Merge the late slots above afterId into the ordered ones
+            Iterator<Integer> late = lateSlots.tailMap(afterId, false).values().iterator();
+            int lateSlot = late.hasNext() ? late.next() : -1;
+            List<ProductDto> products = new ArrayList<>(Math.min(limit, size - low));
+            int i = low;
+            while (products.size() < limit) {
+                int slot;
+                if (i < orderedCount && (lateSlot < 0 || ids[idOrder[i]] < ids[lateSlot])) {
+                    slot = idOrder[i++];
+                } else if (lateSlot >= 0) {
+                    slot = lateSlot;
+                    lateSlot = late.hasNext() ? late.next() : -1;
+                } else {
+                    break;
+                }
+                if (live.get(slot)) {
+                    products.add(toDto(slot));
+                }
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Heap used by the snapshot's arrays, indexes and strings. An estimate: string sizes
+     * assume compact (Latin-1) strings and object headers assume compressed oops.
+     */
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long capacity = ids.length;
+            long columns = capacity * (Long.BYTES * 3 + Integer.BYTES * 3 + 4L * 3);
+            long categoryBits = 0;
+            for (BitSet slots : categorySlots) {
+                categoryBits += slots.size() / 8;
+            }
+            return columns + stringBytes + slotById.estimatedBytes()
+                    + (long) slotBySku.size() * SKU_ENTRY_OVERHEAD_BYTES
+                    + (long) lateSlots.size() * LATE_ENTRY_OVERHEAD_BYTES + live.size() / 8 + categoryBits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Inserts or updates products, e.g. from a database reload.
+     */
+    public void apply(Collection<ProductDto> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::upsert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Loads products and marks the snapshot ready. For the benchmarks, which build snapshots
+     * without a database.
+     */
+    void replaceAll(Collection<ProductDto> products) {
+        apply(products);
+        ready = true;
+    }
+    
+    private void refreshPending() {
+        try {
+            List<Long> changed = new ArrayList<>(pendingRefresh);
+            for (int from = 0; from < changed.size(); from += REFRESH_BATCH_SIZE) {
+                List<Long> batch = changed.subList(from, Math.min(changed.size(), from + REFRESH_BATCH_SIZE));
+                // Remove before reading, so a change committed after the read is queued again
+                batch.forEach(pendingRefresh::remove);
+                List<ProductDto> reloaded = ReadWriteRoutingDataSource.onPrimary(
+                        () -> productRepository.findDtosByIdIn(batch));
+                apply(reloaded);
+                if (reloaded.size() < batch.size()) {
+                    removeMissing(batch, reloaded);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot refresh failed, will retry", e);
+        }
+    }
+    
+    private void removeMissing(List<Long> requested, List<ProductDto> found) {
+        Set<Long> foundIds = new HashSet<>();
+        found.forEach(product -> foundIds.add(product.getId()));
+        lock.writeLock().lock();
+        try {
+            for (Long id : requested) {
+                int slot = slotById.get(id);
+                if (!foundIds.contains(id) && slot >= 0 && live.get(slot)) {
+                    live.clear(slot);
+                    slotBySku.remove(skus[slot], slot);
+                    categorySlots.get(categories[slot]).clear(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void upsert(ProductDto product) {
+        long id = product.getId();
+        int slot = slotById.get(id);
+        if (slot < 0) {
+            slot = allocate(id);
+        } else {
+            if (live.get(slot)) {
+                categorySlots.get(categories[slot]).clear(slot);
+                slotBySku.remove(skus[slot], slot);
+            }
+            stringBytes -= stringBytes(names[slot]) + stringBytes(descriptions[slot]) + stringBytes(skus[slot]);
+        }
+        
+        names[slot] = product.getName();
+        descriptions[slot] = product.getDescription();
+        skus[slot] = product.getSku();
+        stringBytes += stringBytes(names[slot]) + stringBytes(descriptions[slot]) + stringBytes(skus[slot]);
+        categories[slot] = categoryCode(product.getCategory());
+        pricesInCents[slot] = product.getPrice() == null ? 0
+                : product.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        stockQuantities[slot] = product.getStockQuantity() == null ? 0 : product.getStockQuantity();
+        createdAtMicros[slot] = toMicros(product.getCreatedAt());
+        
+        live.set(slot);
+        categorySlots.get(categories[slot]).set(slot);
+        if (skus[slot] != null) {
+            slotBySku.put(skus[slot], slot);
+        }
+    }
+    
+    private int allocate(long id) {
+        if (size == ids.length) {
+            int capacity = Math.max(1024, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            skus = Arrays.copyOf(skus, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            pricesInCents = Arrays.copyOf(pricesInCents, capacity);
+            stockQuantities = Arrays.copyOf(stockQuantities, capacity);
+            createdAtMicros = Arrays.copyOf(createdAtMicros, capacity);
+            idOrder = Arrays.copyOf(idOrder, capacity);
+        }
+        int slot = size++;
+        ids[slot] = id;
+        slotById.put(id, slot);
+        
+        if (id > maxId) {
+            idOrder[orderedCount++] = slot;
+            maxId = id;
+        } else {
+            // Rare: an id from an older sequence block, e.g. allocated on another node. Shifting
+            // idOrder for each one would make a load of such ids quadratic, so they are merged
+            // in batches instead.
+            lateSlots.put(id, slot);
+            if (lateSlots.size() >= Math.max(MIN_LATE_SLOTS_TO_MERGE, orderedCount >> 3)) {
+                mergeLateSlots();
+            }
+        }
+        return slot;
+    }
+    
+    private void mergeLateSlots() {
+        int[] merged = new int[ids.length];
+        int count = 0;
+        int i = 0;
+        for (Map.Entry<Long, Integer> late : lateSlots.entrySet()) {
+            while (i < orderedCount && ids[idOrder[i]] < late.getKey()) {
+                merged[count++] = idOrder[i++];
+            }
+            merged[count++] = late.getValue();
+        }
+        System.arraycopy(idOrder, i, merged, count, orderedCount - i);
+        orderedCount = count + orderedCount - i;
+        idOrder = merged;
+        lateSlots.clear();
+    }
+    
+    private int categoryCode(String category) {
+        return categoryCodes.computeIfAbsent(category, name -> {
+            categoryNames.add(name);
+            categorySlots.add(new BitSet());
+            return categoryNames.size() - 1;
+        });
+    }
+    
+    private ProductDto toDto(int slot) {
+        long micros = createdAtMicros[slot];
+        return new ProductDto(
+                ids[slot],
+                names[slot],
+                descriptions[slot],
+                BigDecimal.valueOf(pricesInCents[slot], PRICE_SCALE),
+                categoryNames.get(categories[slot]),
+                skus[slot],
+                stockQuantities[slot],
+                micros == NO_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC));
+    }
+    
+    private static long toMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1000;
+    }
+    
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+}
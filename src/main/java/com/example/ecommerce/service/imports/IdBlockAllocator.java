@@ -0,0 +1,36 @@
+package com.example.ecommerce.service.imports;
+
+import com.example.ecommerce.entity.PooledSequenceIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocates ids for rows written outside Hibernate from the same pooled-lo sequences the
+ * entities use: each {@code nextval} reserves {@code allocation-size} consecutive ids, so
+ * bulk-loaded rows can never collide with ids Hibernate hands out.
+ */
+@Component
+@RequiredArgsConstructor
+class IdBlockAllocator {
+    
+    private static final String SETTINGS_PREFIX = "spring.jpa.properties." + PooledSequenceIdGenerator.ALLOCATION_SIZE_PREFIX;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    
+    long[] allocate(String sequenceName, int count) {
+        int blockSize = environment.getProperty(SETTINGS_PREFIX + sequenceName, Integer.class,
+                environment.getProperty(SETTINGS_PREFIX + "default", Integer.class, 50));
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Long start = jdbcTemplate.queryForObject("SELECT nextval('" + sequenceName + "')", Long.class);
+            for (int i = 0; i < blockSize && filled < count; i++) {
+                ids[filled++] = start + i;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ecommerce.service.imports;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+    
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("ndjson")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+    
+    public static ImportFormat fromName(String name) {
+        return name != null && name.equalsIgnoreCase("ndjson") ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ecommerce.service.ordernumber;
+
+/**
+ * Hands out unique order numbers. Implementations must be safe to call concurrently
+ * and must never return the same number twice, including across application nodes.
+ */
+public interface OrderNumberGenerator {
+    
+    String PREFIX = "ORD-";
+    
+    String nextOrderNumber();
+}
@@ -0,0 +1,66 @@
+package com.example.ecommerce.service.ordernumber;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hi/lo generator backed by a database sequence. Each {@code nextval} reserves a block
+ * of {@code blockSize} numbers that is then handed out from memory with an atomic
+ * increment; only the thread that exhausts a block goes back to the database.
+ * The sequence is shared by all nodes, so blocks never overlap.
+ */
+public class SequenceHiLoOrderNumberGenerator implements OrderNumberGenerator {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+    private final int blockSize;
+    
+    private volatile Block block = Block.EMPTY;
+    
+    public SequenceHiLoOrderNumberGenerator(JdbcTemplate jdbcTemplate, String sequenceName, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+    }
+    
+    @Override
+    public String nextOrderNumber() {
+        return PREFIX + nextId();
+    }
+    
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.limit) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+    
+    private synchronized void refill(Block exhausted) {
+        if (block != exhausted) {
+            return; // another thread already fetched a new block
+        }
+        Long hi = jdbcTemplate.queryForObject("SELECT nextval('" + sequenceName + "')", Long.class);
+        long start = hi * blockSize;
+        block = new Block(start, start + blockSize);
+    }
+    
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+        
+        final AtomicLong next;
+        final long limit;
+        
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
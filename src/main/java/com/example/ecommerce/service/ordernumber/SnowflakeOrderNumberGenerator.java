@@ -0,0 +1,57 @@
+package com.example.ecommerce.service.ordernumber;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style generator: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of
+ * node id and 12 bits of per-millisecond sequence. Each millisecond is a block of 4096
+ * numbers claimed with a single CAS, so no locks are taken. When a block is exhausted
+ * the generator borrows the next millisecond instead of spinning on the clock.
+ */
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+    
+    static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    
+    private final long nodeId;
+    private final Clock clock;
+    
+    // (timestamp << SEQUENCE_BITS) | sequence of the last number handed out
+    private final AtomicLong state = new AtomicLong();
+    
+    public SnowflakeOrderNumberGenerator(long nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+    
+    public SnowflakeOrderNumberGenerator(long nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+    
+    @Override
+    public String nextOrderNumber() {
+        return PREFIX + nextId();
+    }
+    
+    public long nextId() {
+        long now = clock.millis() - EPOCH;
+        long next;
+        while (true) {
+            long previous = state.get();
+            // Sequence overflow carries into the timestamp, i.e. borrows the next millisecond
+            next = Math.max(now << SEQUENCE_BITS, previous + 1);
+            if (state.compareAndSet(previous, next)) {
+                break;
+            }
+        }
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Trigram inverted index kept in process, for databases without pg_trgm (H2, tests).
+ * Candidates are the intersection of the posting lists of the query's trigrams, verified
+ * with a substring check and ranked by trigram similarity like pg_trgm's {@code similarity()}.
+ * Queries without a trigram walk a name-ordered set from the first name with their prefix.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+    
+    private final ProductRepository productRepository;
+    
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final NavigableSet<NamedId> byName = new ConcurrentSkipListSet<>(
+            Comparator.comparing((NamedId entry) -> entry.name).thenComparingLong(entry -> entry.id));
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductDto> products = productRepository.findAllDtos();
+        products.forEach(product -> onProductSaved(product.getId(), product.getName()));
+        log.info("Indexed {} product names for in-memory search", products.size());
+    }
+    
+    @Override
+    public void onProductSaved(Long id, String name) {
+        String normalized = normalize(name);
+        String previous = names.put(id, normalized);
+        byName.add(new NamedId(normalized, id));
+        if (previous != null && !previous.equals(normalized)) {
+            byName.remove(new NamedId(previous, id));
+        }
+        if (previous != null) {
+            trigrams(previous).forEach(trigram -> {
+                Set<Long> posting = postings.get(trigram);
+                if (posting != null) {
+                    posting.remove(id);
+                }
+            });
+        }
+        trigrams(normalized).forEach(trigram ->
+                postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+    
+    @Override
+    public List<Long> search(String query, int offset, int limit) {
+        String normalized = normalize(query);
+        if (normalized.length() < MIN_SUBSTRING_QUERY_LENGTH) {
+            return searchPrefix(normalized, offset, limit);
+        }
+        Set<String> queryTrigrams = trigrams(normalized);
+        
+        List<Long> matches = new ArrayList<>();
+        for (Long id : candidates(queryTrigrams)) {
+            String name = names.get(id);
+            if (name != null && name.contains(normalized)) {
+                matches.add(id);
+            }
+        }
+        
+        Map<Long, Double> scores = new HashMap<>();
+        matches.forEach(id -> scores.put(id, similarity(queryTrigrams, trigrams(names.get(id)))));
+        matches.sort(Comparator.<Long, Double>comparing(scores::get).reversed().thenComparing(Comparator.naturalOrder()));
+        
+        if (offset >= matches.size()) {
+            return List.of();
+        }
+        return List.copyOf(matches.subList(offset, Math.min(matches.size(), offset + limit)));
+    }
+    
+    private List<Long> searchPrefix(String prefix, int offset, int limit) {
+        List<Long> matches = new ArrayList<>();
+        int skipped = 0;
+        for (NamedId entry : byName.tailSet(new NamedId(prefix, Long.MIN_VALUE))) {
+            if (!entry.name.startsWith(prefix) || matches.size() == limit) {
+                break;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                matches.add(entry.id);
+            }
+        }
+        return matches;
+    }
+    
+    private Set<Long> candidates(Set<String> queryTrigrams) {
+        Set<Long> result = null;
+        for (String trigram : queryTrigrams) {
+            Set<Long> posting = postings.getOrDefault(trigram, Set.of());
+            if (result == null) {
+                result = new HashSet<>(posting);
+            } else {
+                result.retainAll(posting);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        long shared = a.stream().filter(b::contains).count();
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+    
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+    
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(text.substring(i, i + 3));
+        }
+        return result;
+    }
+    
+    private static class NamedId {
+        
+        private final String name;
+        private final long id;
+        
+        NamedId(String name, long id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+}
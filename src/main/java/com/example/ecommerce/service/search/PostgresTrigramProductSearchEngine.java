@@ -0,0 +1,32 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Uses the pg_trgm GiST index on {@code lower(name)} (db/migration/V7) to answer
+ * {@code LIKE '%x%'} without a sequential scan, returning matches nearest first by trigram distance.
+ * Shorter queries go to the name prefix index (db/migration/V12) instead.
+ */
+@RequiredArgsConstructor
+public class PostgresTrigramProductSearchEngine implements ProductSearchEngine {
+    
+    private final ProductRepository productRepository;
+    
+    @Override
+    public List<Long> search(String query, int offset, int limit) {
+        String lowerCase = query.toLowerCase(Locale.ROOT);
+        if (query.length() < MIN_SUBSTRING_QUERY_LENGTH) {
+            return productRepository.searchIdsByNamePrefix(lowerCase, limit, offset);
+        }
+        return productRepository.searchIdsByTrigram(query, escapeLike(lowerCase), limit, offset);
+    }
+    
+    // % and _ in a product name search are literal characters, not wildcards
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
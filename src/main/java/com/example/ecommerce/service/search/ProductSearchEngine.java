@@ -0,0 +1,28 @@
+package com.example.ecommerce.service.search;
+
+import java.util.List;
+
+/**
+ * Case-insensitive substring search over product names, ranked by relevance. Queries shorter
+ * than a trigram match names that start with them instead, in name order: a substring match
+ * without a trigram could only be answered by comparing every product name.
+ */
+public interface ProductSearchEngine {
+    
+    /**
+     * Shortest query that has a trigram, and with it a substring match.
+     */
+    int MIN_SUBSTRING_QUERY_LENGTH = 3;
+    
+    /**
+     * @return ids of matching products, best match first
+     */
+    List<Long> search(String query, int offset, int limit);
+    
+    /**
+     * Called after a product is created or renamed and the change has committed. Engines
+     * backed by database indexes do not need to do anything here.
+     */
+    default void onProductSaved(Long id, String name) {
+    }
+}
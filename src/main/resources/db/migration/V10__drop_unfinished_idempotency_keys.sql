@@ -0,0 +1,5 @@
+-- Keys are now claimed in the same transaction as the write and their result, so a committed
+-- row always has a response. Rows left unfinished by the earlier claim-then-write scheme would
+-- otherwise answer "in progress" until they expire.
+
+DELETE FROM idempotency_keys WHERE response IS NULL;
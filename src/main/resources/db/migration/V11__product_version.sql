@@ -0,0 +1,4 @@
+-- Optimistic locking column for Product (@Version). It came after the baseline schema, so a
+-- database created by ddl-auto before that change has no such column.
+
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Name searches shorter than a trigram match by prefix. A "C"-collated btree answers the prefix
+-- range whatever the database collation, and with id as the second column it also returns the
+-- rows in the order the query asks for.
+CREATE INDEX IF NOT EXISTS idx_products_name_prefix ON products ((lower(name) COLLATE "C"), id);
@@ -0,0 +1,46 @@
+-- Schema as previously generated by Hibernate (ddl-auto), with IDENTITY primary keys.
+
+CREATE TABLE customers (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    phone      VARCHAR(255) NOT NULL,
+    street     VARCHAR(255),
+    city       VARCHAR(255),
+    state      VARCHAR(255),
+    zip_code   VARCHAR(255),
+    country    VARCHAR(255),
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(255)   NOT NULL,
+    description    VARCHAR(1000),
+    price          NUMERIC(10, 2) NOT NULL,
+    category       VARCHAR(255)   NOT NULL,
+    sku            VARCHAR(255)   NOT NULL,
+    stock_quantity INTEGER        NOT NULL,
+    created_at     TIMESTAMP(6)
+);
+
+CREATE TABLE orders (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_number VARCHAR(255) NOT NULL UNIQUE,
+    customer_id  BIGINT       NOT NULL REFERENCES customers (id),
+    status       VARCHAR(255) NOT NULL
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    total_amount NUMERIC(10, 2),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE order_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id    BIGINT         NOT NULL REFERENCES orders (id),
+    product_id  BIGINT         NOT NULL REFERENCES products (id),
+    quantity    INTEGER        NOT NULL,
+    unit_price  NUMERIC(10, 2) NOT NULL,
+    total_price NUMERIC(10, 2)
+);
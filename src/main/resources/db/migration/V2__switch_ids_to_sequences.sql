@@ -0,0 +1,20 @@
+-- Moves primary keys from IDENTITY columns to pooled sequences so Hibernate can batch inserts.
+-- Each sequence's INCREMENT BY must equal the configured allocation size
+-- (spring.jpa.properties.ecommerce.id.allocation-size.*). With the pooled-lo optimizer the
+-- sequence value is the first id of the next block, so it is restarted just past MAX(id).
+
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+SELECT setval('customers_seq', COALESCE((SELECT MAX(id) FROM customers), 0) + 1, false);
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS products_seq INCREMENT BY 50;
+SELECT setval('products_seq', COALESCE((SELECT MAX(id) FROM products), 0) + 1, false);
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', COALESCE((SELECT MAX(id) FROM orders), 0) + 1, false);
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 200;
+SELECT setval('order_items_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 1, false);
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,5 @@
+-- Trigram index so LIKE '%term%' product name searches and similarity() ranking
+-- no longer scan the whole products table.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,26 @@
+-- Indexes for every repository finder. Composite indexes end in id so the
+-- keyset-paginated queries (WHERE ... AND id > ? ORDER BY id) are served in index order.
+
+-- ProductRepository.findBySku: a SKU identifies exactly one product
+CREATE UNIQUE INDEX IF NOT EXISTS ux_products_sku ON products (sku);
+
+-- ProductRepository.findByCategory / findDtosByCategory
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category, id);
+
+-- OrderRepository.findByCustomerId / findWithItemsByCustomerId / findPageByCustomerIdAfter
+CREATE INDEX IF NOT EXISTS idx_orders_customer_id_id ON orders (customer_id, id);
+
+-- OrderRepository.findByStatus
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, id);
+
+-- Open orders are a small subset of the table; keep a compact index for
+-- findByStatus(PENDING|CONFIRMED) ordered by age
+CREATE INDEX IF NOT EXISTS idx_orders_open_created_at ON orders (created_at)
+    WHERE status IN ('PENDING', 'CONFIRMED');
+
+-- Order item cascades and batch fetching by order; reverse lookup from products
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items (product_id);
+
+-- Backs the "sequence" OrderNumberGenerator
+CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1;
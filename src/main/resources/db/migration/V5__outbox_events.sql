@@ -0,0 +1,14 @@
+-- Transactional outbox for order events. Rows are inserted by OrderService in the
+-- order's transaction and deleted by OutboxDispatcher after publishing, so the table
+-- only holds undelivered events and the dispatcher's ORDER BY id scan stays on the PK.
+
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id             BIGINT       PRIMARY KEY,
+    event_type     VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    payload        TEXT         NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Name search orders by trigram distance (lower(name) <-> query). A GiST index returns rows in
+-- that order (KNN), so LIMIT stops the scan early; with the GIN index every LIKE match had to be
+-- fetched and ranked by similarity() first. GiST also answers the LIKE filter, so GIN goes.
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm_gist ON products USING gist (lower(name) gist_trgm_ops);
+
+DROP INDEX IF EXISTS idx_products_name_trgm;
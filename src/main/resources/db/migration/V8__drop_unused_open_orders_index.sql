@@ -0,0 +1,3 @@
+-- No query filters open orders by age: findByStatus is served by idx_orders_status_id, so the
+-- partial index on created_at was only write overhead on every order insert and status change.
+DROP INDEX IF EXISTS idx_orders_open_created_at;
@@ -0,0 +1,49 @@
+-- Per-aggregate ordering and bounded retries for the outbox.
+--
+-- aggregate_sequence numbers each aggregate's events 1, 2, 3... and is allocated from
+-- orders.event_sequence in the order's transaction. The dispatcher only claims an event when
+-- no earlier event of the same aggregate is still in the outbox, so parallel workers publish
+-- each order's events in sequence. A failed event is retried with exponential backoff
+-- (attempts, next_attempt_at) and moved to outbox_dead_letters after the last attempt.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS event_sequence BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS aggregate_sequence BIGINT;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP(6);
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS last_error TEXT;
+
+-- Events still pending at upgrade time keep their id order within each aggregate
+UPDATE outbox_events e
+SET aggregate_sequence = s.aggregate_sequence
+FROM (SELECT id, row_number() OVER (PARTITION BY aggregate_type, aggregate_id ORDER BY id) AS aggregate_sequence
+      FROM outbox_events) s
+WHERE e.id = s.id;
+UPDATE outbox_events SET next_attempt_at = created_at;
+
+ALTER TABLE outbox_events ALTER COLUMN aggregate_sequence SET NOT NULL;
+ALTER TABLE outbox_events ALTER COLUMN next_attempt_at SET NOT NULL;
+
+-- Orders with pending events continue after them; the rest start again at 1
+UPDATE orders o
+SET event_sequence = p.last_sequence
+FROM (SELECT aggregate_id, MAX(aggregate_sequence) AS last_sequence
+      FROM outbox_events WHERE aggregate_type = 'order' GROUP BY aggregate_id) p
+WHERE o.id = p.aggregate_id;
+
+-- Serves the dispatcher's "no earlier event for this aggregate" check
+CREATE UNIQUE INDEX IF NOT EXISTS idx_outbox_events_aggregate_sequence
+    ON outbox_events (aggregate_type, aggregate_id, aggregate_sequence);
+
+CREATE TABLE IF NOT EXISTS outbox_dead_letters (
+    id                 BIGINT       PRIMARY KEY,
+    event_type         VARCHAR(255) NOT NULL,
+    aggregate_type     VARCHAR(255) NOT NULL,
+    aggregate_id       BIGINT       NOT NULL,
+    aggregate_sequence BIGINT       NOT NULL,
+    payload            TEXT         NOT NULL,
+    created_at         TIMESTAMP(6) NOT NULL,
+    attempts           INT          NOT NULL,
+    last_error         TEXT,
+    dead_lettered_at   TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,78 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.ProductService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixtures for the integration tests. Test classes share one application context (and one H2
+ * database), so every email and SKU gets a suffix that is unique for the JVM.
+ */
+public final class TestData {
+    
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    
+    private TestData() {
+    }
+    
+    public static String unique(String prefix) {
+        return prefix + "-" + SEQUENCE.incrementAndGet();
+    }
+    
+    public static CustomerDto customer() {
+        String suffix = unique("customer");
+        CustomerDto customer = new CustomerDto();
+        customer.setFirstName("Test");
+        customer.setLastName("Customer");
+        customer.setEmail(suffix + "@example.com");
+        customer.setPhone("+1-555-0100");
+        customer.setAddress(new CustomerDto.AddressDto("1 Test St", "New York", "NY", "10001", "USA"));
+        return customer;
+    }
+    
+    public static Long createCustomer(CustomerService customerService) {
+        return customerService.createCustomer(customer()).getId();
+    }
+    
+    public static ProductDto product(int stock) {
+        String sku = unique("SKU");
+        ProductDto product = new ProductDto();
+        product.setName("Test product " + sku);
+        product.setDescription("Fixture");
+        product.setPrice(new BigDecimal("2.50"));
+        product.setCategory("Test");
+        product.setSku(sku);
+        product.setStockQuantity(stock);
+        return product;
+    }
+    
+    public static List<Long> createProducts(ProductService productService, int count, int stock) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(productService.createProduct(product(stock)).getId());
+        }
+        return ids;
+    }
+    
+    /** One line per product, each for {@code quantity} units */
+    public static OrderDto order(Long customerId, List<Long> productIds, int quantity) {
+        List<OrderDto.OrderItemDto> items = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            OrderDto.OrderItemDto item = new OrderDto.OrderItemDto();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            items.add(item);
+        }
+        OrderDto order = new OrderDto();
+        order.setCustomerId(customerId);
+        order.setOrderItems(items);
+        return order;
+    }
+}
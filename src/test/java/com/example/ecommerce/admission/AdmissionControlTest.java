@@ -0,0 +1,196 @@
+package com.example.ecommerce.admission;
+
+import com.example.ecommerce.controller.ProductController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlTest.class);
+    
+    // Simulated database: 4 connections, 10 ms per call, far more clients than it can serve
+    private static final int BACKEND_CAPACITY = 4;
+    private static final long SERVICE_MILLIS = 10;
+    private static final int CLIENTS = 64;
+    private static final long LATENCY_THRESHOLD_MS = 40;
+    
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @Test
+    void slowCallsShrinkTheirOwnLimiterButNotTheirClass() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Budget(10, 1, 100, 10));
+        AdmissionControl admissionControl = new AdmissionControl(properties, meterRegistry);
+        
+        for (int i = 0; i < 50; i++) {
+            admissionControl.acquire("search_products", TrafficClass.READ)
+                    .release(TimeUnit.SECONDS.toNanos(1), null);
+        }
+        
+        assertThat(limit("search_products")).isEqualTo(1);
+        assertThat(limit("read")).isGreaterThanOrEqualTo(10);
+        // Other reads keep the full class budget
+        for (int i = 0; i < 10; i++) {
+            admissionControl.acquire("get_product", TrafficClass.READ);
+        }
+    }
+    
+    @Test
+    void overloadFailuresShrinkTheClass() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Budget(10, 1, 100, 10));
+        AdmissionControl admissionControl = new AdmissionControl(properties, meterRegistry);
+        
+        admissionControl.acquire("get_product", TrafficClass.READ)
+                .release(TimeUnit.MILLISECONDS.toNanos(1), new CannotCreateTransactionException("pool exhausted"));
+        
+        assertThat(limit("read")).isLessThan(10);
+        assertThat(limit("get_product")).isLessThan(10);
+    }
+    
+    @Test
+    void bulkCallsHaveABudgetOfTheirOwn() {
+        AdmissionControl admissionControl = new AdmissionControl(new AdmissionProperties(), meterRegistry);
+        assertThat(admissionControl.classifyTool("import_products")).isEqualTo(TrafficClass.BULK);
+        assertThat(admissionControl.classifyTool("create_order")).isEqualTo(TrafficClass.WRITE);
+        assertThat(admissionControl.classifyTool("get_product")).isEqualTo(TrafficClass.READ);
+        
+        List<AdmissionControl.Permit> imports = new ArrayList<>();
+        for (int i = 0; i < limit("bulk"); i++) {
+            imports.add(admissionControl.acquire("import_products", TrafficClass.BULK));
+        }
+        assertThatThrownBy(() -> admissionControl.acquire("import_customers", TrafficClass.BULK))
+                .isInstanceOf(AdmissionRejectedException.class);
+        // A full bulk budget leaves writes alone
+        admissionControl.acquire("create_order", TrafficClass.WRITE);
+        
+        // A 30 second import is within the bulk threshold, where it would be a very slow write
+        imports.get(0).release(TimeUnit.SECONDS.toNanos(30), null);
+        assertThat(limit("import_products")).isGreaterThanOrEqualTo(new AdmissionProperties().getBulk().getInitialLimit());
+    }
+    
+    @Test
+    void ndjsonEndpointsAreBulk() throws Exception {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(
+                new AdmissionControl(new AdmissionProperties(), meterRegistry));
+        ProductController controller = new ProductController(null, null, null);
+        
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/api/products");
+        assertThat(interceptor.preHandle(stream, new MockHttpServletResponse(),
+                new HandlerMethod(controller, ProductController.class.getMethod("streamAllProducts")))).isTrue();
+        MockHttpServletRequest page = new MockHttpServletRequest("GET", "/api/products");
+        assertThat(interceptor.preHandle(page, new MockHttpServletResponse(),
+                new HandlerMethod(controller, ProductController.class.getMethod("getAllProducts", Long.class, int.class))))
+                .isTrue();
+        
+        assertThat(inFlight("bulk")).isEqualTo(1);
+        assertThat(inFlight("read")).isEqualTo(1);
+    }
+    
+    @Test
+    void p99StaysBoundedUnderOverload() throws InterruptedException {
+        Overload limited = overload(true);
+        Overload unlimited = overload(false);
+        log.info("Admission on: p99 {} ms, {} served, {} shed; off: p99 {} ms, {} served",
+                limited.p99Millis, limited.served, limited.shed, unlimited.p99Millis, unlimited.served);
+        
+        // Without limits every call queues behind all the others: CLIENTS / BACKEND_CAPACITY * 10 ms
+        assertThat(unlimited.p99Millis).isGreaterThan(3 * LATENCY_THRESHOLD_MS);
+        assertThat(limited.p99Millis).isLessThan(5 * LATENCY_THRESHOLD_MS / 2);
+        assertThat(limited.shed).isPositive();
+    }
+    
+    private Overload overload(boolean enabled) throws InterruptedException {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(enabled);
+        properties.setRead(new AdmissionProperties.Budget(50, 4, 200, LATENCY_THRESHOLD_MS));
+        AdmissionControl admissionControl = new AdmissionControl(properties, new SimpleMeterRegistry());
+        Semaphore backend = new Semaphore(BACKEND_CAPACITY, true);
+        Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger shed = new AtomicInteger();
+        // The limit needs a moment to find the backend's capacity; only later calls are measured
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(2);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < stopAt) {
+                        long start = System.nanoTime();
+                        AdmissionControl.Permit permit;
+                        try {
+                            permit = admissionControl.acquire("get_product", TrafficClass.READ);
+                        } catch (AdmissionRejectedException e) {
+                            shed.incrementAndGet();
+                            Thread.sleep(1);
+                            continue;
+                        }
+                        backend.acquire();
+                        try {
+                            Thread.sleep(SERVICE_MILLIS);
+                        } finally {
+                            backend.release();
+                        }
+                        long latency = System.nanoTime() - start;
+                        permit.release(latency, null);
+                        if (start >= measureFrom) {
+                            latencies.add(latency);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        
+        List<Long> sorted = new ArrayList<>(latencies);
+        sorted.sort(null);
+        assertThat(sorted).isNotEmpty();
+        long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        return new Overload(TimeUnit.NANOSECONDS.toMillis(p99), sorted.size(), shed.get());
+    }
+    
+    private double limit(String limiter) {
+        return meterRegistry.get("admission.limit").tag("limiter", limiter).gauge().value();
+    }
+    
+    private double inFlight(String limiter) {
+        return meterRegistry.get("admission.in.flight").tag("limiter", limiter).gauge().value();
+    }
+    
+    private static class Overload {
+        
+        private final long p99Millis;
+        private final int served;
+        private final int shed;
+        
+        Overload(long p99Millis, int served, int shed) {
+            this.p99Millis = p99Millis;
+            this.served = served;
+            this.shed = shed;
+        }
+    }
+}
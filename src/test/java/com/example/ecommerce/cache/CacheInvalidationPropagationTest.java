@@ -0,0 +1,99 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.EcommerceMcpDemoApplication;
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts in one JVM behave like two replicas: they share the H2 database and the
+ * in-memory invalidation bus, and each has its own product caches.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class CacheInvalidationPropagationTest {
+    
+    private static ConfigurableApplicationContext replica;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // Started once the test context exists, so the shared schema is already there
+    @BeforeEach
+    void startReplica() {
+        if (replica == null) {
+            replica = new SpringApplicationBuilder(EcommerceMcpDemoApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("h2")
+                    // Command-line arguments, so they override application-h2.yml; never drop the shared schema
+                    .run("--spring.jpa.hibernate.ddl-auto=none",
+                            "--ecommerce.orders.node-id=1",
+                            "--ecommerce.outbox.dispatcher.enabled=false",
+                            "--spring.ai.openai.api-key=unused");
+        }
+    }
+    
+    @AfterAll
+    static void stopReplica() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+    
+    @Test
+    void stockChangeOnOneNodeEvictsTheOtherNodesCache() {
+        ProductService replicaProducts = replica.getBean(ProductService.class);
+        Long productId = TestData.createProducts(productService, 1, 50).get(0);
+        assertThat(replicaProducts.getProductById(productId).getStockQuantity()).isEqualTo(50);
+        
+        orderService.createOrder(TestData.order(TestData.createCustomer(customerService), List.of(productId), 5));
+        
+        assertThat(replicaProducts.getProductById(productId).getStockQuantity()).isEqualTo(45);
+    }
+    
+    @Test
+    void rolledBackWritesDoNotEvictOtherNodes() {
+        ProductService replicaProducts = replica.getBean(ProductService.class);
+        Long productId = TestData.createProducts(productService, 1, 50).get(0);
+        String sku = productService.getProductById(productId).getSku();
+        replicaProducts.getProductById(productId);
+        long before = replicaEvictions();
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.evictFromCache(productId, sku);
+            status.setRollbackOnly();
+        });
+        
+        assertThat(replicaEvictions()).isEqualTo(before);
+    }
+    
+    private long replicaEvictions() {
+        return (long) replica.getBean(MeterRegistry.class)
+                .get("cache.invalidation.lag").timer().count();
+    }
+}
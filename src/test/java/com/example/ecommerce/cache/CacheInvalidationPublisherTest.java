@@ -0,0 +1,168 @@
+package com.example.ecommerce.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationPublisherTest {
+    
+    private static final AtomicLong WRITES = new AtomicLong();
+    
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate requiresNew;
+    
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:invalidation-publisher;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS writes (id BIGINT PRIMARY KEY)");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @Test
+    void sendsAllEventsOfATransactionInOneCallAfterCommit() {
+        RecordingBus bus = new RecordingBus(false);
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(bus, new CacheNode());
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            write(bus);
+            for (long id = 1; id <= 3; id++) {
+                publisher.publish(InvalidationEvent.EntityType.PRODUCT, id, "SKU-" + id);
+            }
+            assertThat(bus.calls).isEmpty();
+        });
+        
+        assertThat(bus.calls).hasSize(1);
+        assertThat(bus.calls.get(0).events()).extracting(InvalidationEvent::getId).containsExactly(1L, 2L, 3L);
+        assertThat(bus.calls.get(0).writeVisible()).isTrue();
+    }
+    
+    @Test
+    void transactionalBusesAreCalledOnTheTransactionBeforeCommit() {
+        RecordingBus bus = new RecordingBus(true);
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(bus, new CacheNode());
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            write(bus);
+            publisher.publish(InvalidationEvent.EntityType.PRODUCT, 1L, "SKU-1");
+            publisher.publish(InvalidationEvent.EntityType.PRODUCT, 2L, "SKU-2");
+        });
+        
+        assertThat(bus.calls).singleElement().satisfies(call -> {
+            assertThat(call.inTransaction()).isTrue();
+            assertThat(call.writeVisible()).isFalse();
+            assertThat(call.events()).hasSize(2);
+        });
+    }
+    
+    @Test
+    void rolledBackTransactionsPublishNothing() {
+        RecordingBus bus = new RecordingBus(false);
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(bus, new CacheNode());
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(InvalidationEvent.EntityType.PRODUCT, 1L, "SKU-1");
+            status.setRollbackOnly();
+        });
+        
+        assertThat(bus.calls).isEmpty();
+    }
+    
+    @Test
+    void innerTransactionsPublishTheirOwnBatch() {
+        RecordingBus bus = new RecordingBus(false);
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(bus, new CacheNode());
+        
+        transactionTemplate.executeWithoutResult(outer -> {
+            publisher.publish(InvalidationEvent.EntityType.PRODUCT, 1L, "SKU-1");
+            requiresNew.executeWithoutResult(inner -> publisher.publish(InvalidationEvent.EntityType.PRODUCT, 2L, "SKU-2"));
+            assertThat(bus.calls).singleElement()
+                    .satisfies(call -> assertThat(call.events()).extracting(InvalidationEvent::getId).containsExactly(2L));
+        });
+        
+        assertThat(bus.calls).hasSize(2);
+        assertThat(bus.calls.get(1).events()).extracting(InvalidationEvent::getId).containsExactly(1L);
+    }
+    
+    @Test
+    void publishesAtOnceOutsideATransaction() {
+        RecordingBus bus = new RecordingBus(true);
+        
+        new CacheInvalidationPublisher(bus, new CacheNode()).publish(InvalidationEvent.EntityType.PRODUCT, 1L, null);
+        
+        assertThat(bus.calls).singleElement().satisfies(call -> assertThat(call.inTransaction()).isFalse());
+    }
+    
+    @Test
+    void splitsLargeBatchesIntoNotifySizedPayloads() {
+        List<InvalidationEvent> events = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            events.add(new InvalidationEvent("node", InvalidationEvent.EntityType.PRODUCT, id, "SKU-" + id, 1L));
+        }
+        
+        List<String> payloads = InvalidationEvent.encodeAll(events, PostgresInvalidationBus.MAX_PAYLOAD_BYTES);
+        
+        assertThat(payloads).hasSizeGreaterThan(1)
+                .allSatisfy(payload -> assertThat(payload.getBytes(StandardCharsets.UTF_8))
+                        .hasSizeLessThanOrEqualTo(PostgresInvalidationBus.MAX_PAYLOAD_BYTES));
+        assertThat(payloads.stream().flatMap(payload -> InvalidationEvent.decodeAll(payload).stream()))
+                .containsExactlyElementsOf(events);
+    }
+    
+    // Inserts a row in the current transaction; the bus records whether another connection can see it
+    private void write(RecordingBus bus) {
+        bus.write = WRITES.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO writes (id) VALUES (?)", bus.write);
+    }
+    
+    private record Call(List<InvalidationEvent> events, boolean inTransaction, boolean writeVisible) {
+    }
+    
+    private class RecordingBus implements InvalidationBus {
+        
+        private final boolean transactional;
+        private final List<Call> calls = new CopyOnWriteArrayList<>();
+        private long write;
+        
+        RecordingBus(boolean transactional) {
+            this.transactional = transactional;
+        }
+        
+        @Override
+        public void publish(List<InvalidationEvent> events) {
+            boolean writeVisible = CompletableFuture.supplyAsync(() -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM writes WHERE id = ?", Integer.class, write) > 0).join();
+            calls.add(new Call(List.copyOf(events), TransactionSynchronizationManager.isActualTransactionActive(),
+                    writeVisible));
+        }
+        
+        @Override
+        public void subscribe(Consumer<InvalidationEvent> subscriber) {
+        }
+        
+        @Override
+        public boolean isTransactional() {
+            return transactional;
+        }
+    }
+}
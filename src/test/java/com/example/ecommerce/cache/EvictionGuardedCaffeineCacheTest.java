@@ -0,0 +1,48 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EvictionGuardedCaffeineCacheTest {
+    
+    private EvictionGuardedCaffeineCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new EvictionGuardedCaffeineCache("products", Caffeine.newBuilder().build());
+    }
+    
+    @Test
+    void storesWhatWasLoadedAfterAMiss() {
+        assertThat(cache.get(1L)).isNull();
+        cache.put(1L, "stock 10");
+        
+        assertThat(cache.get(1L).get()).isEqualTo("stock 10");
+    }
+    
+    @Test
+    void dropsAValueLoadedBeforeAConcurrentEviction() {
+        // Reader misses and loads the old row; the writer commits and evicts; the reader then puts
+        assertThat(cache.get(1L)).isNull();
+        CompletableFuture.runAsync(() -> cache.evict(1L)).join();
+        cache.put(1L, "stock 10");
+        
+        assertThat(cache.get(1L)).isNull();
+        cache.put(1L, "stock 9");
+        assertThat(cache.get(1L).get()).isEqualTo("stock 9");
+    }
+    
+    @Test
+    void clearAlsoInvalidatesLoadsInFlight() {
+        assertThat(cache.get("SKU-1")).isNull();
+        CompletableFuture.runAsync(cache::clear).join();
+        cache.putIfAbsent("SKU-1", "stale");
+        
+        assertThat(cache.get("SKU-1")).isNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostgresInvalidationBusTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private InvalidationBus invalidationBus;
+    
+    @Autowired
+    private CacheInvalidationPublisher publisher;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Test
+    void deliversATransactionsEventsOnlyWhenItCommits() throws InterruptedException {
+        BlockingQueue<InvalidationEvent> received = new LinkedBlockingQueue<>();
+        invalidationBus.subscribe(event -> {
+            if (event.getId() >= 900_000_000L) {
+                received.add(event);
+            }
+        });
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = 900_000_000L; id < 900_000_500L; id++) {
+                publisher.publish(InvalidationEvent.EntityType.PRODUCT, id, "SKU-" + id);
+            }
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = 900_001_000L; id < 900_001_500L; id++) {
+                publisher.publish(InvalidationEvent.EntityType.PRODUCT, id, "SKU-" + id);
+            }
+            try {
+                assertThat(received.poll(1, TimeUnit.SECONDS)).isNull();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        for (long id = 900_001_000L; id < 900_001_500L; id++) {
+            InvalidationEvent event = received.poll(10, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            assertThat(event.getId()).isEqualTo(id);
+        }
+        assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(List.copyOf(received)).isEmpty();
+    }
+}
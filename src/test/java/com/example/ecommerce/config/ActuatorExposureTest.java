@@ -0,0 +1,43 @@
+package com.example.ecommerce.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator endpoints that change state must not be reachable over unauthenticated HTTP.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:actuator;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ActuatorExposureTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void cachesCannotBeClearedOverHttp() throws Exception {
+        // Unmapped, so only the static resource handler answers: 405 for anything but GET
+        mockMvc.perform(delete("/actuator/caches")).andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/actuator/caches")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void flightRecorderIsNotReachableByDefault() throws Exception {
+        mockMvc.perform(post("/actuator/flightrecorder")).andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/actuator/flightrecorder")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void metricsStayExposed() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionGateDataSourceTest {
+    
+    private static final int POOL_SIZE = 4;
+    private static final int PERMITS = 2;
+    
+    private HikariDataSource pool;
+    private ConnectionGateDataSource gate;
+    
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:connection-gate;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(POOL_SIZE);
+        pool.setConnectionTimeout(2000);
+        gate = new ConnectionGateDataSource(pool, PERMITS, 2000);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+    
+    @Test
+    void threadsThatOpenASecondConnectionDoNotDeadlock() throws Exception {
+        int threads = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < 20; round++) {
+                    try (Connection outer = gate.getConnection()) {
+                        // e.g. a REQUIRES_NEW transaction inside an open one
+                        try (Connection inner = gate.getConnection()) {
+                            inner.createStatement().execute("SELECT 1");
+                        }
+                        outer.createStatement().execute("SELECT 1");
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        assertThat(gate.getAvailablePermits()).isEqualTo(PERMITS);
+    }
+    
+    @Test
+    void admitsOnlyAsManyThreadsAsThereArePermits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PERMITS);
+        CountDownLatch holding = new CountDownLatch(PERMITS);
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < PERMITS; i++) {
+            executor.execute(() -> {
+                try (Connection connection = gate.getConnection()) {
+                    holding.countDown();
+                    done.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        assertThat(gate.getAvailablePermits()).isZero();
+        // A third thread waits for the gate's timeout although the pool still has idle connections
+        assertThatThrownBy(() -> CompletableFuture.runAsync(() -> {
+            try {
+                gate.getConnection().close();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }).join()).hasCauseInstanceOf(SQLTransientConnectionException.class);
+        
+        done.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(gate.getAvailablePermits()).isEqualTo(PERMITS);
+    }
+}
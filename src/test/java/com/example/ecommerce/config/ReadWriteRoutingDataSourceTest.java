@@ -0,0 +1,169 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two H2 databases standing in for the primary and a replica; each holds a
+ * {@code node} table naming itself, so every read shows where it was routed.
+ */
+class ReadWriteRoutingDataSourceTest {
+    
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    
+    private JdbcTemplate replicaAdmin;
+    private ReplicaSet replicaSet;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @BeforeEach
+    void setUp() {
+        DataSource primary = node(PRIMARY_URL, "primary");
+        DataSource replica = node(REPLICA_URL, "replica");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        replicaAdmin.update("DELETE FROM replica_lag");
+        replicaAdmin.update("INSERT INTO replica_lag VALUES (0)");
+        
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        replicaSet = new ReplicaSet(List.of(new ReplicaSet.Member("replica-1", replica)),
+                "SELECT seconds FROM replica_lag", 5, 60_000, meterRegistry);
+        replicaSet.checkAll();
+        
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaSet, meterRegistry);
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.PRIMARY, primary, "replica-1", replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    @Test
+    void readOnlyTransactionsRunOnTheReplica() {
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("replica");
+    }
+    
+    @Test
+    void writesAndNonTransactionalAccessRunOnThePrimary() {
+        assertThat(readWrite.execute(status -> currentNode())).isEqualTo("primary");
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+    
+    @Test
+    void cacheFillingReadsRunOnThePrimary() {
+        assertThat(ReadWriteRoutingDataSource.onPrimary(() -> readOnly.execute(status -> currentNode())))
+                .isEqualTo("primary");
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("replica");
+    }
+    
+    @Test
+    void laggingReplicasAreSkipped() {
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 30");
+        replicaSet.checkAll();
+        
+        assertThat(replicaSet.members().get(0).isHealthy()).isFalse();
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("primary");
+    }
+    
+    @Test
+    void detachedReplicasAreSkippedAndComeBackOnceReplicating() {
+        // What the PostgreSQL lag query reports once the WAL receiver is gone
+        replicaAdmin.update("UPDATE replica_lag SET seconds = NULL");
+        replicaSet.checkAll();
+        
+        assertThat(replicaSet.members().get(0).isHealthy()).isFalse();
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("primary");
+        
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 0");
+        replicaSet.checkAll();
+        
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("replica");
+    }
+    
+    @Test
+    void primaryPoolTakesTheSpringHikariSettings() {
+        routingContext().run(context -> {
+            assertThat(context).hasNotFailed();
+            HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+            assertThat(primary.getMaximumPoolSize()).isEqualTo(7);
+            assertThat(primary.getConnectionTimeout()).isEqualTo(1500);
+            assertThat(primary.getPoolName()).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+        });
+    }
+    
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void primaryPoolIsGatedOnceUnderVirtualThreads() {
+        routingContext()
+                .withUserConfiguration(VirtualThreadConfiguration.class)
+                .withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBean("primaryDataSource")).isInstanceOf(ConnectionGateDataSource.class);
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+                    // 7 connections, 2 reserved
+                    ConnectionGateDataSource gate = context.getBean("primaryDataSource", ConnectionGateDataSource.class);
+                    assertThat(gate.getAvailablePermits()).isEqualTo(5);
+                });
+    }
+    
+    private static ApplicationContextRunner routingContext() {
+        return new ApplicationContextRunner()
+                .withUserConfiguration(DataSourcePropertiesConfiguration.class, ReadReplicaConfiguration.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "spring.datasource.url=" + PRIMARY_URL,
+                        "spring.datasource.username=sa",
+                        "spring.datasource.hikari.maximum-pool-size=7",
+                        "spring.datasource.hikari.connection-timeout=1500",
+                        "ecommerce.datasource.routing.enabled=true",
+                        "ecommerce.datasource.routing.lag-query=SELECT 0",
+                        "ecommerce.datasource.routing.replicas[0].url=" + REPLICA_URL,
+                        "ecommerce.datasource.routing.replicas[0].username=sa");
+    }
+    
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+    
+    private static DataSource node(String url, String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        JdbcTemplate admin = new JdbcTemplate(dataSource);
+        admin.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        admin.update("DELETE FROM node");
+        admin.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+    
+    @Configuration
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class DataSourcePropertiesConfiguration {
+    }
+}
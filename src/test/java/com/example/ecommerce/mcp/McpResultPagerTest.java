@@ -0,0 +1,98 @@
+package com.example.ecommerce.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class McpResultPagerTest {
+    
+    private McpResultPager pager;
+    
+    @BeforeEach
+    void setUp() {
+        pager = new McpResultPager(new ObjectMapper());
+        ReflectionTestUtils.setField(pager, "maxItems", 10);
+        ReflectionTestUtils.setField(pager, "maxResponseBytes", 200);
+        ReflectionTestUtils.setField(pager, "maxOffset", 100);
+    }
+    
+    @Test
+    void capsThePageSizeAndHandsOutTheLastIdAsCursor() {
+        List<Long> rows = ids(1, 20);
+        
+        Map<String, Object> page = pager.page("ids", rows, 100, id -> id);
+        
+        assertThat((List<?>) page.get("ids")).hasSize(10);
+        assertThat(pager.decodeCursor((String) page.get("nextCursor"))).isEqualTo(10L);
+        assertThat(pager.fetchSize(100)).isEqualTo(11);
+    }
+    
+    @Test
+    void omitsTheCursorOnTheLastPage() {
+        Map<String, Object> page = pager.page("ids", ids(1, 3), 5, id -> id);
+        
+        assertThat((List<?>) page.get("ids")).hasSize(3);
+        assertThat(page).doesNotContainKey("nextCursor");
+    }
+    
+    @Test
+    void stopsAtTheByteBudgetButReturnsAtLeastOneRow() {
+        String large = "x".repeat(150);
+        
+        Map<String, Object> page = pager.page("rows", List.of(large, large, large), 10, row -> 7L);
+        Map<String, Object> oversized = pager.page("rows", List.of("y".repeat(500), "z"), 10, row -> 8L);
+        
+        assertThat((List<?>) page.get("rows")).hasSize(1);
+        assertThat(page).containsKey("nextCursor");
+        assertThat((List<?>) oversized.get("rows")).hasSize(1);
+    }
+    
+    @Test
+    void offsetCursorPointsAtTheNextRankedRow() {
+        Map<String, Object> page = pager.pageByOffset("ids", ids(1, 11), 10, 30);
+        
+        assertThat(pager.decodeCursor((String) page.get("nextCursor"))).isEqualTo(40L);
+    }
+    
+    @Test
+    void rejectsMalformedCursors() {
+        assertThat(pager.decodeCursor(null)).isNull();
+        assertThatThrownBy(() -> pager.decodeCursor("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void boundsOffsetCursors() {
+        assertThat(pager.decodeOffset(null)).isZero();
+        assertThat(pager.decodeOffset(cursor(100))).isEqualTo(100);
+        assertThatThrownBy(() -> pager.decodeOffset(cursor(-1))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pager.decodeOffset(cursor(101))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pager.decodeOffset(cursor(Long.MAX_VALUE))).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void stopsHandingOutOffsetCursorsPastTheMaximum() {
+        assertThat(pager.pageByOffset("ids", ids(1, 11), 10, 90)).containsKey("nextCursor");
+        assertThat(pager.pageByOffset("ids", ids(1, 11), 10, 95)).doesNotContainKey("nextCursor");
+    }
+    
+    private static String cursor(long value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+}
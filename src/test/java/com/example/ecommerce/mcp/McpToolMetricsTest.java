@@ -0,0 +1,113 @@
+package com.example.ecommerce.mcp;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.admission.AdmissionControl;
+import com.example.ecommerce.admission.AdmissionProperties;
+import com.example.ecommerce.config.SqlStatementCounter;
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Every MCP tool call registers its latency, response size and SQL statement count, and the
+ * statement count comes from the JDBC layer, so JdbcTemplate and Hibernate are both seen.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class McpToolMetricsTest {
+    
+    @Autowired
+    private EcommerceMcpServer mcpServer;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Test
+    void toolCallsRegisterLatencySizeAndStatementMeters() {
+        CustomerDto customer = customerService.createCustomer(TestData.customer());
+        
+        mcpServer.getCustomer(customer.getId(), null);
+        mcpServer.getCustomer(null, null);
+        
+        Timer success = meterRegistry.get("mcp.tool.duration")
+                .tags("tool", "get_customer", "outcome", "success", "exception", "none").timer();
+        Timer rejected = meterRegistry.get("mcp.tool.duration")
+                .tags("tool", "get_customer", "outcome", "rejected", "exception", "none").timer();
+        assertThat(success.count()).isGreaterThanOrEqualTo(1);
+        assertThat(rejected.count()).isGreaterThanOrEqualTo(1);
+        
+        DistributionSummary statements = meterRegistry.get("mcp.tool.sql.statements").tag("tool", "get_customer").summary();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(2);
+        assertThat(statements.max()).isGreaterThanOrEqualTo(1);
+        
+        DistributionSummary size = meterRegistry.get("mcp.tool.response.size").tag("tool", "get_customer").summary();
+        assertThat(size.totalAmount()).isPositive();
+        
+        assertThat(meterRegistry.get("ecommerce.service")
+                .tags("class", CustomerService.class.getName(), "method", "getCustomerById", "exception", "none")
+                .timer().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+    
+    @Test
+    void statementsAreCountedAtTheJdbcLayer() throws Exception {
+        assertThat(dataSource.isWrapperFor(SqlStatementCounter.class)).isTrue();
+        
+        int before = SqlStatementCounter.current();
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        jdbcTemplate.queryForObject("SELECT ?", Integer.class, 1);
+        jdbcTemplate.update("UPDATE customers SET phone = phone WHERE id = -1");
+        
+        assertThat(SqlStatementCounter.current() - before).isEqualTo(3);
+    }
+    
+    @Test
+    void errorsReleaseTheirPermitAndAreRecorded() {
+        // A single permit, so a leaked one would shed the next call
+        AdmissionProperties.Budget single = new AdmissionProperties.Budget();
+        single.setInitialLimit(1);
+        single.setMinLimit(1);
+        single.setMaxLimit(1);
+        single.setLatencyThresholdMs(60_000);
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(single);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        McpToolInvoker invoker = new McpToolInvoker(registry, new ObjectMapper(),
+                new AdmissionControl(properties, registry));
+        
+        assertThatThrownBy(() -> invoker.invoke("get_product", "get product", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        
+        assertThat(invoker.invoke("get_product", "get product", () -> Map.of("success", true)))
+                .containsEntry("success", true);
+        assertThat(registry.get("mcp.tool.duration")
+                .tags("tool", "get_product", "outcome", "error", "exception", "StackOverflowError")
+                .timer().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ecommerce.mcp;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * get_products and get_customers key every result by its kind, and a key that is malformed or
+ * matches nothing yields its own {"found": false} entry instead of failing the call.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class MultiGetToolsTest {
+    
+    @Autowired
+    private EcommerceMcpServer mcpServer;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Test
+    void anIdAndASkuWithTheSameTextDoNotCollide() {
+        ProductDto byId = productService.createProduct(TestData.product(1));
+        ProductDto numericSku = TestData.product(1);
+        numericSku.setSku(String.valueOf(byId.getId()));
+        numericSku = productService.createProduct(numericSku);
+        
+        Map<String, Object> products = products(mcpServer.getProducts(
+                String.valueOf(byId.getId()), String.valueOf(byId.getId())));
+        
+        assertThat(products).containsOnlyKeys("id:" + byId.getId(), "sku:" + byId.getId());
+        assertThat(((ProductDto) products.get("id:" + byId.getId())).getId()).isEqualTo(byId.getId());
+        assertThat(((ProductDto) products.get("sku:" + byId.getId())).getId()).isEqualTo(numericSku.getId());
+    }
+    
+    @Test
+    void malformedAndMissingKeysFailOnlyTheirOwnEntry() {
+        ProductDto product = productService.createProduct(TestData.product(1));
+        
+        Map<String, Object> result = mcpServer.getProducts(product.getId() + ",abc,-1", "no-such-sku");
+        
+        assertThat(result).containsEntry("success", true);
+        Map<String, Object> products = products(result);
+        assertThat(products.get("id:" + product.getId())).isInstanceOf(ProductDto.class);
+        assertThat(products.get("id:abc")).isEqualTo(Map.of("found", false, "error", "Invalid ID: abc"));
+        assertThat(products.get("id:-1")).isEqualTo(Map.of("found", false));
+        assertThat(products.get("sku:no-such-sku")).isEqualTo(Map.of("found", false));
+    }
+    
+    @Test
+    void customersAreKeyedByIdAndEmail() {
+        CustomerDto customer = customerService.createCustomer(TestData.customer());
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> customers = (Map<String, Object>) mcpServer.getCustomers(
+                customer.getId() + ",x1", customer.getEmail()).get("customers");
+        
+        assertThat(customers).containsOnlyKeys("id:" + customer.getId(), "id:x1", "email:" + customer.getEmail());
+        assertThat(((CustomerDto) customers.get("email:" + customer.getEmail())).getId()).isEqualTo(customer.getId());
+        assertThat(customers.get("id:x1")).isEqualTo(Map.of("found", false, "error", "Invalid ID: x1"));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> products(Map<String, Object> result) {
+        return (Map<String, Object>) result.get("products");
+    }
+}
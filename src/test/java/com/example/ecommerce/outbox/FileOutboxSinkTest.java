@@ -0,0 +1,79 @@
+package com.example.ecommerce.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileOutboxSinkTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void batchIsOnDiskWhenPublishReturns() throws IOException {
+        Path file = directory.resolve("nested/events.ndjson");
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(message(1, 7, 1), message(2, 7, 2)));
+            
+            List<JsonNode> lines = read(file);
+            assertThat(lines).extracting(line -> line.get("id").asLong()).containsExactly(1L, 2L);
+            JsonNode first = lines.get(0);
+            assertThat(first.get("eventType").asText()).isEqualTo("ORDER_CREATED");
+            assertThat(first.get("aggregateType").asText()).isEqualTo("order");
+            assertThat(first.get("aggregateId").asLong()).isEqualTo(7);
+            assertThat(first.get("aggregateSequence").asLong()).isEqualTo(1);
+            assertThat(first.get("payload").asText()).isEqualTo("{\"id\":7}");
+            assertThat(first.hasNonNull("createdAt")).isTrue();
+        }
+    }
+    
+    @Test
+    void reopeningAppendsInsteadOfTruncating() throws IOException {
+        Path file = directory.resolve("events.ndjson");
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(message(1, 7, 1)));
+        }
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(message(2, 7, 2), message(3, 8, 1)));
+        }
+        
+        assertThat(read(file)).extracting(line -> line.get("id").asLong()).containsExactly(1L, 2L, 3L);
+    }
+    
+    @Test
+    void publishingAfterCloseFails() throws IOException {
+        FileOutboxSink sink = new FileOutboxSink(directory.resolve("events.ndjson"), objectMapper);
+        sink.close();
+        
+        assertThatThrownBy(() -> sink.publish(List.of(message(1, 7, 1))))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+    
+    private List<JsonNode> read(Path file) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+    
+    private static OutboxMessage message(long id, long orderId, long sequence) {
+        return new OutboxMessage(id, OutboxEventType.ORDER_CREATED, "order", orderId, sequence,
+                "{\"id\":" + orderId + "}", LocalDateTime.of(2025, 1, 1, 12, 0));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.service.CustomerService;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the dispatcher by hand (the background workers are disabled) against a sink that can be
+ * told to reject individual events.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "ecommerce.outbox.dispatcher.enabled=false"})
+@ActiveProfiles("h2")
+class OutboxDispatcherTest {
+    
+    private static final int MAX_ATTEMPTS = 3;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private final RecordingSink sink = new RecordingSink();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatcher dispatcher;
+    
+    @BeforeEach
+    void createDispatcher() {
+        meterRegistry = new SimpleMeterRegistry();
+        // No backoff, so a failed event can be claimed again by the next batch
+        dispatcher = new OutboxDispatcher(jdbcTemplate, transactionTemplate, sink, meterRegistry,
+                100, 1, 200, MAX_ATTEMPTS, 0);
+    }
+    
+    @Test
+    void eventsOfOneOrderArePublishedInSequence() {
+        Long orderId = placeOrder();
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.SHIPPED);
+        
+        // Only the earliest pending event of an order is claimable, so each batch carries one
+        assertThat(dispatchUntilEmpty()).isEqualTo(3);
+        assertThat(sink.publishedFor(orderId))
+                .extracting(OutboxMessage::getAggregateSequence)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(sink.publishedFor(orderId))
+                .extracting(OutboxMessage::getEventType)
+                .containsExactly(OutboxEventType.ORDER_CREATED, OutboxEventType.ORDER_STATUS_CHANGED,
+                        OutboxEventType.ORDER_STATUS_CHANGED);
+    }
+    
+    @Test
+    void failedEventIsRetriedAndBlocksOnlyItsOwnOrder() {
+        Long failing = placeOrder();
+        Long healthy = placeOrder();
+        orderService.updateOrderStatus(failing, Order.OrderStatus.CONFIRMED);
+        long poison = eventId(failing, 1);
+        sink.reject(poison);
+        
+        // The batch fails, so its events go one at a time: the healthy order's is still delivered
+        dispatcher.dispatchBatch();
+        
+        assertThat(sink.publishedFor(healthy)).hasSize(1);
+        assertThat(sink.publishedFor(failing)).isEmpty();
+        Map<String, Object> pending = jdbcTemplate.queryForMap(
+                "SELECT attempts, last_error FROM outbox_events WHERE id = ?", poison);
+        assertThat(((Number) pending.get("attempts")).intValue()).isEqualTo(1);
+        assertThat((String) pending.get("last_error")).contains("rejected " + poison);
+        assertThat(meterRegistry.counter("outbox.dispatch.failures").count()).isEqualTo(1);
+        
+        // Recovers on a later attempt: both events go out, still in sequence
+        sink.accept(poison);
+        dispatchUntilEmpty();
+        
+        assertThat(sink.publishedFor(failing))
+                .extracting(OutboxMessage::getAggregateSequence)
+                .containsExactly(1L, 2L);
+    }
+    
+    @Test
+    void eventIsDeadLetteredAfterTheLastAttempt() {
+        Long orderId = placeOrder();
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CANCELLED);
+        long poison = eventId(orderId, 1);
+        sink.reject(poison);
+        
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            dispatcher.dispatchBatch();
+        }
+        dispatchUntilEmpty();
+        
+        Map<String, Object> deadLetter = jdbcTemplate.queryForMap(
+                "SELECT aggregate_id, aggregate_sequence, attempts, last_error FROM outbox_dead_letters WHERE id = ?",
+                poison);
+        assertThat(((Number) deadLetter.get("aggregate_id")).longValue()).isEqualTo(orderId);
+        assertThat(((Number) deadLetter.get("aggregate_sequence")).longValue()).isEqualTo(1);
+        assertThat(((Number) deadLetter.get("attempts")).intValue()).isEqualTo(MAX_ATTEMPTS);
+        assertThat((String) deadLetter.get("last_error")).contains("rejected " + poison);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE id = ?", Integer.class, poison)).isZero();
+        assertThat(meterRegistry.counter("outbox.dead.lettered").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("outbox.dispatch.failures").count()).isEqualTo(MAX_ATTEMPTS);
+        
+        // The dead letter unblocks the order: its next event is published, leaving a gap at 1
+        assertThat(sink.publishedFor(orderId))
+                .extracting(OutboxMessage::getAggregateSequence)
+                .containsExactly(2L);
+    }
+    
+    private Long placeOrder() {
+        Long customerId = TestData.createCustomer(customerService);
+        List<Long> productIds = TestData.createProducts(productService, 1, 100);
+        return orderService.createOrder(TestData.order(customerId, productIds, 1)).getId();
+    }
+    
+    private long eventId(Long orderId, long sequence) {
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM outbox_events WHERE aggregate_type = 'order' AND aggregate_id = ? " +
+                "AND aggregate_sequence = ?", Long.class, orderId, sequence);
+    }
+    
+    private int dispatchUntilEmpty() {
+        int total = 0;
+        for (int published; (published = dispatcher.dispatchBatch()) > 0; ) {
+            total += published;
+        }
+        return total;
+    }
+    
+    private static class RecordingSink implements OutboxSink {
+        
+        private final List<OutboxMessage> published = new CopyOnWriteArrayList<>();
+        private final Set<Long> rejected = ConcurrentHashMap.newKeySet();
+        
+        @Override
+        public void publish(List<OutboxMessage> messages) {
+            for (OutboxMessage message : messages) {
+                if (rejected.contains(message.getId())) {
+                    throw new IllegalStateException("rejected " + message.getId());
+                }
+            }
+            published.addAll(messages);
+        }
+        
+        void reject(long id) {
+            rejected.add(id);
+        }
+        
+        void accept(long id) {
+            rejected.remove(id);
+        }
+        
+        List<OutboxMessage> publishedFor(Long orderId) {
+            List<OutboxMessage> messages = new ArrayList<>();
+            for (OutboxMessage message : published) {
+                if (message.getAggregateId() == orderId) {
+                    messages.add(message);
+                }
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecorderEndpointTest {
+    
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+    
+    @AfterEach
+    void stopRecording() {
+        endpoint.stop();
+    }
+    
+    @Test
+    void dumpFileIsDeletedOnceStreamed() throws Exception {
+        assertThat(endpoint.start(5, 10)).containsEntry("started", true);
+        
+        WebEndpointResponse<Resource> response = endpoint.dump();
+        Path file = response.getBody().getFile().toPath();
+        assertThat(file).exists();
+        try (InputStream in = response.getBody().getInputStream()) {
+            assertThat(in.readAllBytes()).isNotEmpty();
+        }
+        
+        assertThat(Files.exists(file)).isFalse();
+    }
+    
+    @Test
+    void onlyOneRecordingRunsAtATime() throws Exception {
+        assertThat(endpoint.start(5, 10)).containsEntry("started", true);
+        assertThat(endpoint.start(5, 10)).containsEntry("started", false);
+        assertThat(endpoint.stop()).containsEntry("stopped", true);
+        assertThat(endpoint.dump().getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
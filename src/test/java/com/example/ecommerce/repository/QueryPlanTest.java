@@ -0,0 +1,87 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.PostgresIntegrationTest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every finder must be answerable from an index in db/migration. With enable_seqscan off the
+ * planner only falls back to a sequential scan when no index can serve the query, so the check
+ * does not depend on table sizes or statistics.
+ */
+class QueryPlanTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    static Stream<Arguments> finders() {
+        return Stream.of(
+            Arguments.of("ProductRepository.findBySku", "SELECT * FROM products WHERE sku = 'SKU-1'"),
+            Arguments.of("ProductRepository.findDtosByCategory",
+                    "SELECT * FROM products WHERE category = 'Books'"),
+            Arguments.of("ProductRepository.findDtosAfter",
+                    "SELECT * FROM products WHERE id > 100 ORDER BY id LIMIT 50"),
+            Arguments.of("ProductRepository.findDtosByIdIn", "SELECT * FROM products WHERE id IN (1, 2, 3)"),
+            Arguments.of("ProductRepository.findDtosBySkuIn",
+                    "SELECT * FROM products WHERE sku IN ('SKU-1', 'SKU-2')"),
+            Arguments.of("ProductRepository.searchIdsByTrigram",
+                    "SELECT p.id FROM products p WHERE lower(p.name) LIKE '%' || 'lamp' || '%' ESCAPE '\\' " +
+                    "ORDER BY lower(p.name) <-> lower('lamp'), p.id LIMIT 20 OFFSET 0"),
+            Arguments.of("ProductRepository.searchIdsByNamePrefix",
+                    "SELECT p.id FROM products p WHERE lower(p.name) COLLATE \"C\" >= 'tv' " +
+                    "AND lower(p.name) COLLATE \"C\" < 'tv' || chr(1114111) " +
+                    "ORDER BY lower(p.name) COLLATE \"C\", p.id LIMIT 20 OFFSET 0"),
+            Arguments.of("InventoryService.reserve",
+                    "UPDATE products SET stock_quantity = stock_quantity - 1 WHERE id = 1 AND stock_quantity >= 1"),
+            Arguments.of("CustomerRepository.findByEmail",
+                    "SELECT * FROM customers WHERE email = 'a@example.com'"),
+            Arguments.of("CustomerRepository.findDtosByEmailIn",
+                    "SELECT * FROM customers WHERE email IN ('a@example.com', 'b@example.com')"),
+            Arguments.of("CustomerRepository.findDtosAfter",
+                    "SELECT * FROM customers WHERE id > 100 ORDER BY id LIMIT 50"),
+            Arguments.of("OrderRepository.findByOrderNumber",
+                    "SELECT * FROM orders WHERE order_number = 'ORD-1'"),
+            Arguments.of("OrderRepository.findPageByCustomerIdAfter",
+                    "SELECT * FROM orders WHERE customer_id = 1 AND id > 100 ORDER BY id LIMIT 50"),
+            Arguments.of("OrderRepository.findByStatus", "SELECT * FROM orders WHERE status = 'PENDING'"),
+            Arguments.of("OrderRepository.findPageAfter",
+                    "SELECT * FROM orders WHERE id > 100 ORDER BY id LIMIT 50"),
+            Arguments.of("Order.orderItems batch fetch", "SELECT * FROM order_items WHERE order_id IN (1, 2, 3)"),
+            Arguments.of("order items by product", "SELECT * FROM order_items WHERE product_id = 1"),
+            Arguments.of("OutboxDispatcher claim",
+                    "SELECT * FROM outbox_events e WHERE e.next_attempt_at <= now() AND NOT EXISTS (" +
+                    "SELECT 1 FROM outbox_events p WHERE p.aggregate_type = e.aggregate_type " +
+                    "AND p.aggregate_id = e.aggregate_id AND p.aggregate_sequence < e.aggregate_sequence) " +
+                    "ORDER BY e.id LIMIT 100 FOR UPDATE SKIP LOCKED"),
+            Arguments.of("IdempotencyService purge",
+                    "DELETE FROM idempotency_keys WHERE expires_at < now()"),
+            Arguments.of("IdempotencyService lookup",
+                    "SELECT * FROM idempotency_keys WHERE idempotency_key = 'create_order:1'"));
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void usesAnIndex(String finder, String sql) {
+        List<String> plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+            // EXPLAIN of a DELETE or FOR UPDATE does not run it, but never leave anything behind
+            status.setRollbackOnly();
+            return lines;
+        });
+        
+        assertThat(String.join("\n", plan)).as(finder).doesNotContain("Seq Scan");
+    }
+}
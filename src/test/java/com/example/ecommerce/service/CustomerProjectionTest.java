@@ -0,0 +1,35 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.CustomerDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class CustomerProjectionTest {
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Test
+    void projectionsCarryTheNestedAddress() {
+        CustomerDto created = customerService.createCustomer(TestData.customer());
+        
+        Map<Long, CustomerDto> byId = customerService.getCustomersByIds(List.of(created.getId()));
+        List<CustomerDto> page = customerService.getCustomersAfter(created.getId() - 1, 1);
+        
+        // createdAt comes back at the column's precision, so compare everything else
+        assertThat(byId.get(created.getId())).usingRecursiveComparison().ignoringFields("createdAt").isEqualTo(created);
+        assertThat(page).singleElement().usingRecursiveComparison().ignoringFields("createdAt").isEqualTo(created);
+        assertThat(page.get(0).getAddress())
+                .isEqualTo(new CustomerDto.AddressDto("1 Test St", "New York", "NY", "10001", "USA"));
+    }
+}
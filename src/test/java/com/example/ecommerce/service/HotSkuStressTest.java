@@ -0,0 +1,109 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads ordering one unit at a time of the same product: every unit of stock is sold
+ * exactly once, and throughput is logged per thread count.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class HotSkuStressTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(HotSkuStressTest.class);
+    
+    private static final int STOCK = 400;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long customerId;
+    
+    @BeforeEach
+    void createCustomer() {
+        customerId = TestData.createCustomer(customerService);
+    }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16, 32})
+    void neverOversellsAHotProduct(int threads) throws InterruptedException {
+        Long productId = TestData.createProducts(productService, 1, STOCK).get(0);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                // Stop once stock runs out; other failures (exhausted retries) just try again
+                while (failed.get() < STOCK) {
+                    try {
+                        orderService.createOrder(TestData.order(customerId, List.of(productId), 1));
+                        placed.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                        return;
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        
+        log.info("{} threads: {} orders in {} ms, {} orders/s, {} retried failures", threads, placed.get(),
+                Math.round(seconds * 1000), Math.round(placed.get() / seconds), failed.get());
+        
+        assertThat(placed.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(threads);
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isZero();
+        Integer sold = jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM order_items WHERE product_id = ?", Integer.class, productId);
+        assertThat(sold).isEqualTo(STOCK);
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
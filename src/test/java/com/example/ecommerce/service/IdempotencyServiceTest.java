@@ -0,0 +1,196 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.CustomerDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class IdempotencyServiceTest {
+    
+    private static final int THREADS = 16;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void concurrentDuplicatesPlaceOneOrder() throws InterruptedException {
+        Long customerId = TestData.createCustomer(customerService);
+        List<Long> productIds = TestData.createProducts(productService, 2, 100);
+        OrderDto order = TestData.order(customerId, productIds, 1);
+        String key = TestData.unique("order-key");
+        Set<Long> orderIds = ConcurrentHashMap.newKeySet();
+        
+        runConcurrently(THREADS, thread -> orderIds.add(orderService.createOrder(order, key).getId()));
+        
+        assertThat(orderIds).hasSize(1);
+        assertThat(orderService.getOrdersByCustomerId(customerId)).hasSize(1);
+    }
+    
+    @Test
+    void keyedCustomerCreationReplaysTheFirstCustomer() {
+        CustomerDto customer = TestData.customer();
+        String key = TestData.unique("customer-key");
+        
+        CustomerDto first = customerService.createCustomer(customer, key);
+        CustomerDto retry = customerService.createCustomer(customer, key);
+        
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(customers(customer.getEmail())).isEqualTo(1);
+    }
+    
+    @Test
+    void duplicatesOnAnotherInstanceNeverRunTheWriteTwice() throws InterruptedException {
+        // A second service has its own in-flight map, like another instance sharing the database
+        IdempotencyService otherInstance = new IdempotencyService(jdbcTemplate, transactionTemplate, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(1), 100, 5000);
+        CustomerDto customer = TestData.customer();
+        String key = TestData.unique("customer-key");
+        AtomicInteger executions = new AtomicInteger();
+        AtomicInteger answered = new AtomicInteger();
+        AtomicInteger inProgress = new AtomicInteger();
+        Set<Long> customerIds = ConcurrentHashMap.newKeySet();
+        Supplier<CustomerDto> createSlowly = () -> {
+            executions.incrementAndGet();
+            CustomerDto created = customerService.createCustomer(customer);
+            // Hold the claim open while the duplicates arrive
+            sleep(200);
+            return created;
+        };
+        
+        runConcurrently(THREADS, thread -> {
+            IdempotencyService instance = thread % 2 == 0 ? idempotencyService : otherInstance;
+            try {
+                customerIds.add(instance.execute("create_customer", key, customer, CustomerDto.class, createSlowly).getId());
+                answered.incrementAndGet();
+            } catch (IdempotencyKeyInProgressException e) {
+                inProgress.incrementAndGet();
+            }
+        });
+        
+        assertThat(executions).hasValue(1);
+        assertThat(customerIds).hasSize(1);
+        // Every duplicate either replayed the result or was told to retry later
+        assertThat(answered.get() + inProgress.get()).isEqualTo(THREADS);
+        assertThat(customers(customer.getEmail())).isEqualTo(1);
+        // Once committed, every instance replays the result
+        assertThat(otherInstance.execute("create_customer", key, customer, CustomerDto.class, createSlowly).getId())
+                .isIn(customerIds);
+        assertThat(executions).hasValue(1);
+    }
+    
+    @Test
+    void failedWriteRollsBackTheKeyWithIt() {
+        CustomerDto customer = TestData.customer();
+        String key = TestData.unique("customer-key");
+        
+        assertThatThrownBy(() -> idempotencyService.execute("create_customer", key, customer, CustomerDto.class, () -> {
+            customerService.createCustomer(customer);
+            throw new IllegalStateException("failed after the write");
+        })).isInstanceOf(IllegalStateException.class);
+        
+        assertThat(customers(customer.getEmail())).isZero();
+        assertThat(keys("create_customer:" + key)).isZero();
+        
+        // The key is free again, so the retry runs
+        CustomerDto created = idempotencyService.execute("create_customer", key, customer, CustomerDto.class,
+                () -> customerService.createCustomer(customer));
+        assertThat(created.getId()).isNotNull();
+        assertThat(customers(customer.getEmail())).isEqualTo(1);
+    }
+    
+    @Test
+    void unfinishedKeyIsReportedInProgressInsteadOfTakenOver() {
+        String key = TestData.unique("customer-key");
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(2);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at, expires_at) " +
+                "VALUES (?, 'hash', ?, ?)", "create_customer:" + key, longAgo, LocalDateTime.now().plusHours(1));
+        AtomicInteger executions = new AtomicInteger();
+        
+        assertThatThrownBy(() -> idempotencyService.execute("create_customer", key, TestData.customer(),
+                CustomerDto.class, () -> {
+                    executions.incrementAndGet();
+                    return null;
+                })).isInstanceOf(IdempotencyKeyInProgressException.class);
+        assertThat(executions).hasValue(0);
+    }
+    
+    private int customers(String email) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers WHERE email = ?", Integer.class, email);
+    }
+    
+    private int keys(String storageKey) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key = ?", Integer.class, storageKey);
+    }
+    
+    private static void runConcurrently(int threads, IntConsumer body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                body.accept(thread);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.config.SqlStatementCounter;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderPlacementTest {
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    private Long customerId;
+    
+    @BeforeEach
+    void createCustomer() {
+        customerId = TestData.createCustomer(customerService);
+    }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100, 1000})
+    void placesOrderWithEveryLineAndReservesStock(int lines) {
+        List<Long> productIds = TestData.createProducts(productService, lines, 10);
+        
+        OrderDto order = orderService.createOrder(TestData.order(customerId, productIds, 2));
+        
+        assertThat(order.getId()).isNotNull();
+        assertThat(order.getOrderItems()).hasSize(lines);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo(new BigDecimal("5.00").multiply(BigDecimal.valueOf(lines)));
+        assertThat(productRepository.findAllById(productIds))
+                .extracting(Product::getStockQuantity)
+                .containsOnly(8);
+        assertThat(orderService.getOrderById(order.getId()).getOrderItems()).hasSize(lines);
+    }
+    
+    @Test
+    void statementCountDoesNotGrowWithOrderLines() {
+        // Warm up the pooled id blocks so neither measurement pays for a sequence call the other skips
+        statementsFor(1);
+        int single = statementsFor(1);
+        int hundred = statementsFor(100);
+        
+        // The only growth allowed is one extra insert batch per 50 items plus a pooled id refill
+        assertThat(hundred).isLessThanOrEqualTo(single + 3);
+    }
+    
+    // Counted at the JDBC layer, so JdbcTemplate statements are seen as well as Hibernate's
+    private int statementsFor(int lines) {
+        List<Long> productIds = TestData.createProducts(productService, lines, 10);
+        int before = SqlStatementCounter.current();
+        orderService.createOrder(TestData.order(customerId, productIds, 1));
+        return SqlStatementCounter.current() - before;
+    }
+}
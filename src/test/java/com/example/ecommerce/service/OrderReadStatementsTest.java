@@ -0,0 +1,83 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.config.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order reads must not issue one query per order or per item: the statement count for a customer
+ * with many multi-line orders is the same as for a customer with one.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderReadStatementsTest {
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Test
+    void readsByCustomerUseOneStatementRegardlessOfOrderCount() {
+        Long few = customerWithOrders(1);
+        Long many = customerWithOrders(30);
+        
+        assertThat(statements(() -> orderService.getOrdersByCustomerId(few))).isEqualTo(1);
+        assertThat(statements(() -> orderService.getOrdersByCustomerId(many))).isEqualTo(1);
+        assertThat(orderService.getOrdersByCustomerId(many))
+                .hasSize(30)
+                .allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(3));
+    }
+    
+    @Test
+    void singleOrderIsReadWithItsItemsInOneStatement() {
+        Long customerId = customerWithOrders(1);
+        Long orderId = orderService.getOrdersByCustomerId(customerId).get(0).getId();
+        
+        assertThat(statements(() -> orderService.getOrderById(orderId))).isEqualTo(1);
+    }
+    
+    @Test
+    void pagesBatchFetchItemsInsteadOfLoadingThemPerOrder() {
+        Long customerId = customerWithOrders(40);
+        
+        // One page query plus one batched item fetch (default_batch_fetch_size = 50)
+        assertThat(statements(() -> orderService.getOrdersByCustomerId(customerId, null, 40))).isEqualTo(2);
+        assertThat(statements(() -> orderService.getOrdersAfter(null, 40))).isEqualTo(2);
+    }
+    
+    @Test
+    void listingAllOrdersFetchesItemsInTheSameStatement() {
+        customerWithOrders(5);
+        
+        assertThat(statements(() -> orderService.getAllOrders())).isEqualTo(1);
+    }
+    
+    private Long customerWithOrders(int orders) {
+        Long customerId = TestData.createCustomer(customerService);
+        List<Long> productIds = TestData.createProducts(productService, 3, 1000);
+        for (int i = 0; i < orders; i++) {
+            orderService.createOrder(TestData.order(customerId, productIds, 1));
+        }
+        return customerId;
+    }
+    
+    private int statements(Supplier<?> read) {
+        int before = SqlStatementCounter.current();
+        Object result = read.get();
+        assertThat(result).isNotNull();
+        return SqlStatementCounter.current() - before;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.OrderDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderStreamingTest {
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void streamsEveryOrderWithItsItemsInOneStatement() {
+        Long customerId = TestData.createCustomer(customerService);
+        List<Long> productIds = TestData.createProducts(productService, 3, 100);
+        for (int i = 0; i < 20; i++) {
+            orderService.createOrder(TestData.order(customerId, productIds, 1));
+        }
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        List<OrderDto> streamed = new ArrayList<>();
+        orderService.streamAllOrders(streamed::add);
+        long statements = statistics.getPrepareStatementCount() - before;
+        
+        assertThat(statements).isEqualTo(1);
+        assertThat(streamed).extracting(OrderDto::getId).isSorted().doesNotHaveDuplicates();
+        assertThat(streamed)
+                .filteredOn(order -> customerId.equals(order.getCustomerId()))
+                .hasSize(20)
+                .allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(3));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.CustomerDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Many threads reading the same few customers through the service: every caller gets the entity
+ * it asked for, identical concurrent loads run once, and callers inside a transaction bypass
+ * coalescing.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class RequestCoalescerStressTest {
+    
+    private static final int THREADS = 32;
+    private static final int READS_PER_THREAD = 500;
+    
+    @Autowired
+    private CustomerService customerService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Test
+    void concurrentReadsReturnTheRequestedCustomer() throws InterruptedException {
+        List<CustomerDto> customers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            customers.add(customerService.createCustomer(TestData.customer()));
+        }
+        AtomicInteger mismatches = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        double callsBefore = calls("executed") + calls("coalesced");
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < READS_PER_THREAD; i++) {
+                    CustomerDto expected = customers.get((thread + i) % customers.size());
+                    try {
+                        CustomerDto actual = i % 2 == 0
+                                ? customerService.getCustomerById(expected.getId())
+                                : customerService.getCustomerByEmail(expected.getEmail());
+                        if (!expected.getId().equals(actual.getId())) {
+                            mismatches.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        
+        assertThat(mismatches.get()).isZero();
+        assertThat(failures.get()).isZero();
+        assertThat(calls("executed") + calls("coalesced") - callsBefore).isEqualTo(THREADS * READS_PER_THREAD);
+    }
+    
+    @Test
+    void callersInsideATransactionBypassCoalescing() {
+        CustomerDto customer = customerService.createCustomer(TestData.customer());
+        double callsBefore = calls("executed") + calls("coalesced");
+        
+        transactionTemplate.executeWithoutResult(status -> customerService.getCustomerById(customer.getId()));
+        
+        assertThat(calls("executed") + calls("coalesced")).isEqualTo(callsBefore);
+    }
+    
+    @Test
+    void identicalLoadsRunOnceAndShareTheirFailure() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestCoalescer coalescer = new RequestCoalescer(60_000, registry);
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger shared = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                try {
+                    coalescer.execute(RequestCoalescer.key("customer", "id", 1L), () -> {
+                        loads.incrementAndGet();
+                        // Keep the flight open until every other thread has joined it
+                        while (registry.get("coalescer.calls").tag("outcome", "coalesced").counter().count() < THREADS - 1) {
+                            Thread.onSpinWait();
+                        }
+                        throw new IllegalStateException("boom");
+                    });
+                } catch (IllegalStateException e) {
+                    shared.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(shared.get()).isEqualTo(THREADS);
+        // The failed flight is gone, so the next call loads again
+        assertThatThrownBy(() -> coalescer.execute(RequestCoalescer.key("customer", "id", 1L), () -> {
+            throw new IllegalStateException("again");
+        })).hasMessage("again");
+    }
+    
+    private double calls(String outcome) {
+        return meterRegistry.get("coalescer.calls").tag("outcome", outcome).counter().count();
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
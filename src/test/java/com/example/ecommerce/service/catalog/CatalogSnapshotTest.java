@@ -0,0 +1,94 @@
+package com.example.ecommerce.service.catalog;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.config.CacheConfiguration;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.imports.BulkImportService;
+import com.example.ecommerce.service.imports.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "ecommerce.catalog.snapshot.enabled=true"})
+@ActiveProfiles("h2")
+class CatalogSnapshotTest {
+    
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Test
+    void readsSkipTheProductCachesOnceTheSnapshotIsReady() {
+        assertThat(catalogSnapshot.isReady()).isTrue();
+        ProductDto created = productService.createProduct(TestData.product(10));
+        
+        assertThat(productService.getProductById(created.getId()).getSku()).isEqualTo(created.getSku());
+        assertThat(productService.getProductBySku(created.getSku()).getId()).isEqualTo(created.getId());
+        
+        assertThat(cacheManager.getCache(CacheConfiguration.PRODUCTS_BY_ID).get(created.getId())).isNull();
+        assertThat(cacheManager.getCache(CacheConfiguration.PRODUCTS_BY_SKU).get(created.getSku())).isNull();
+    }
+    
+    @Test
+    void importedProductsArriveThroughInvalidations() throws InterruptedException {
+        String sku = TestData.unique("SNAP");
+        String csv = "name,description,price,category,sku,stockQuantity\n"
+                + "Imported,Bulk loaded,4.20,Imports," + sku + ",3\n";
+        bulkImportService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (catalogSnapshot.findBySku(sku).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(catalogSnapshot.findBySku(sku)).hasValueSatisfying(product ->
+                assertThat(product.getPrice()).isEqualByComparingTo("4.20"));
+    }
+    
+    @Test
+    void listsInIdOrderWhenIdsArriveOutOfOrder() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(null, null, null, false, 10000, 100);
+        // Enough older ids to be merged into the id order more than once
+        List<Long> ids = LongStream.rangeClosed(1, 20_000).boxed().collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(ids, new Random(42));
+        for (int from = 0; from < ids.size(); from += 777) {
+            List<ProductDto> batch = new ArrayList<>();
+            for (Long id : ids.subList(from, Math.min(ids.size(), from + 777))) {
+                batch.add(new ProductDto(id, "Product " + id, null, BigDecimal.ONE, "Shuffled", "SHUFFLED-" + id,
+                        1, LocalDateTime.now()));
+            }
+            snapshot.replaceAll(batch);
+        }
+        
+        assertThat(snapshot.findAll()).extracting(ProductDto::getId).isSorted().hasSize(ids.size());
+        assertThat(snapshot.findAfter(10_000, 5)).extracting(ProductDto::getId)
+                .containsExactly(10_001L, 10_002L, 10_003L, 10_004L, 10_005L);
+        assertThat(snapshot.findByCategory("Shuffled")).extracting(ProductDto::getId).isSorted();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ecommerce.service.imports;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.cache.InvalidationBus;
+import com.example.ecommerce.cache.InvalidationEvent;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows whose unique key already exists are skipped and reported one by one while the rest of
+ * their chunk is imported; imported products are announced on the invalidation bus.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class BulkImportServiceTest {
+    
+    private static final String HEADER = "name,description,price,category,sku,stockQuantity\n";
+    
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private InvalidationBus invalidationBus;
+    
+    @Test
+    void skipsExistingSkusAndImportsTheRestOfTheChunk() {
+        ProductDto existing = productService.createProduct(TestData.product(1));
+        String first = TestData.unique("SKU");
+        String second = TestData.unique("SKU");
+        
+        ImportReport report = importProducts(row(first) + row(existing.getSku()) + row(second));
+        
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getRowsImported()).isEqualTo(2);
+        assertThat(report.getRowsRejected()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(3);
+            assertThat(error.getMessage()).isEqualTo("Duplicate sku: " + existing.getSku());
+        });
+        assertThat(productService.getProductBySku(first)).isNotNull();
+        assertThat(productService.getProductBySku(second)).isNotNull();
+        assertThat(productService.getProductById(existing.getId()).getName()).isEqualTo(existing.getName());
+    }
+    
+    @Test
+    void reportsEachDuplicateWithinTheFile() {
+        String sku = TestData.unique("SKU");
+        
+        ImportReport report = importProducts(row(sku) + row(sku) + row(sku));
+        
+        assertThat(report.getRowsImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ImportReport.RowError::getLine).containsExactly(3L, 4L);
+    }
+    
+    @Test
+    void publishesAProductInvalidationPerImportedRow() {
+        Set<String> announced = ConcurrentHashMap.newKeySet();
+        invalidationBus.subscribe(event -> {
+            if (event.getEntityType() == InvalidationEvent.EntityType.PRODUCT && event.getNaturalKey() != null) {
+                announced.add(event.getNaturalKey());
+            }
+        });
+        String first = TestData.unique("SKU");
+        String second = TestData.unique("SKU");
+        
+        importProducts(row(first) + row(second));
+        
+        assertThat(announced).contains(first, second);
+    }
+    
+    private ImportReport importProducts(String rows) {
+        return bulkImportService.importProducts(
+                new ByteArrayInputStream((HEADER + rows).getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+    }
+    
+    private static String row(String sku) {
+        return "Imported " + sku + ",Bulk,4.99,Imported," + sku + ",10\n";
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ecommerce.service.imports;
+
+import com.example.ecommerce.PostgresIntegrationTest;
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The COPY path: rows land in a staging table and conflicting SKUs are skipped on the way into
+ * {@code products} instead of failing the whole chunk.
+ */
+class PostgresBulkImportTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void copySkipsExistingSkusAndImportsTheRestOfTheChunk() {
+        ProductDto existing = productService.createProduct(TestData.product(1));
+        String prefix = TestData.unique("COPY");
+        StringBuilder csv = new StringBuilder("name,description,price,category,sku,stockQuantity\n");
+        for (int i = 0; i < 100; i++) {
+            String sku = i == 50 ? existing.getSku() : prefix + "-" + i;
+            csv.append("Copied ").append(i).append(",\"Quoted, \"\"text\"\"\",1.50,Copied,").append(sku).append(",5\n");
+        }
+        
+        ImportReport report = bulkImportService.importProducts(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        
+        assertThat(report.getRowsImported()).isEqualTo(99);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(52);
+            assertThat(error.getMessage()).isEqualTo("Duplicate sku: " + existing.getSku());
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM products WHERE sku LIKE ?", Long.class,
+                prefix + "-%")).isEqualTo(99);
+        assertThat(productService.getProductBySku(prefix + "-7").getDescription()).isEqualTo("Quoted, \"text\"");
+    }
+}
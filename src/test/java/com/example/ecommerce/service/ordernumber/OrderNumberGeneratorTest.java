@@ -0,0 +1,95 @@
+package com.example.ecommerce.service.ordernumber;
+
+import com.example.ecommerce.config.OrderNumberConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderNumberGeneratorTest {
+    
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 20_000;
+    
+    @Test
+    void snowflakeNumbersAreUniqueAcrossThreadsAndNodes() throws InterruptedException {
+        List<LongSupplier> nodes = new ArrayList<>();
+        for (long nodeId = 0; nodeId < 4; nodeId++) {
+            nodes.add(new SnowflakeOrderNumberGenerator(nodeId)::nextId);
+        }
+        
+        assertThat(generateConcurrently(nodes)).hasSize(nodes.size() * THREADS * PER_THREAD);
+    }
+    
+    @Test
+    void snowflakeBorrowsAheadWhenTheClockStandsStill() throws InterruptedException {
+        // 160k numbers in one frozen millisecond: 4096 per millisecond, so most are borrowed ahead
+        Clock frozen = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7, frozen);
+        
+        assertThat(generateConcurrently(List.of(generator::nextId))).hasSize(THREADS * PER_THREAD);
+    }
+    
+    @Test
+    void sequenceBlocksNeverOverlapAcrossNodes() throws InterruptedException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ordernumbers-test;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1");
+        List<LongSupplier> nodes = List.of(
+                new SequenceHiLoOrderNumberGenerator(jdbcTemplate, "order_number_seq", 100)::nextId,
+                new SequenceHiLoOrderNumberGenerator(jdbcTemplate, "order_number_seq", 100)::nextId);
+        
+        assertThat(generateConcurrently(nodes)).hasSize(nodes.size() * THREADS * PER_THREAD);
+    }
+    
+    @Test
+    void snowflakeRequiresAnExplicitNodeId() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withUserConfiguration(OrderNumberConfiguration.class);
+        
+        runner.run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("ecommerce.orders.node-id=3")
+                .run(context -> assertThat(context).hasSingleBean(OrderNumberGenerator.class));
+    }
+    
+    private static Set<Long> generateConcurrently(List<LongSupplier> nodes) throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size() * THREADS);
+        for (LongSupplier node : nodes) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        ids.add(node.getAsLong());
+                    }
+                });
+            }
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        return ids;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.PostgresIntegrationTest;
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostgresProductSearchTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void wildcardsInTheQueryMatchLiterally() {
+        String tag = TestData.unique("w").toLowerCase();
+        Long percent = create("100% cotton " + tag);
+        create("100 cotton " + tag);
+        Long underscore = create("snake_case " + tag);
+        create("snakeXcase " + tag);
+        
+        assertThat(ids(productService.searchProductsByName("100% cotton " + tag, 0, 10))).containsExactly(percent);
+        assertThat(ids(productService.searchProductsByName("e_case " + tag, 0, 10))).containsExactly(underscore);
+    }
+    
+    @Test
+    void nearestNamesComeFirst() {
+        String tag = TestData.unique("n").toLowerCase();
+        Long exact = create("lamp " + tag);
+        Long longer = create("lamp " + tag + " with a very long description of a shade");
+        
+        assertThat(ids(productService.searchProductsByName("lamp " + tag, 0, 10))).containsExactly(exact, longer);
+    }
+    
+    @Test
+    void queriesWithoutATrigramMatchNamePrefixesInNameOrder() {
+        // A prefix no other test creates names with
+        Long second = create("zqb tv " + TestData.unique("b"));
+        Long first = create("zqa tv " + TestData.unique("a"));
+        create("tv zq" + TestData.unique("c"));
+        
+        assertThat(ids(productService.searchProductsByName("ZQ", 0, 10))).containsExactly(first, second);
+        assertThat(ids(productService.searchProductsByName("zq", 1, 10))).containsExactly(second);
+    }
+    
+    @Test
+    void rankedSearchWalksTheGistIndexInsteadOfSortingEveryMatch() {
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category, sku, stock_quantity, version, created_at) " +
+                "SELECT nextval('products_seq'), 'generated product ' || g, 1.00, 'Generated', 'GEN-' || g || '-' || " +
+                "md5(random()::text), 1, 0, now() FROM generate_series(1, 20000) g");
+        jdbcTemplate.execute("ANALYZE products");
+        
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT p.id FROM products p " +
+                "WHERE lower(p.name) LIKE '%' || 'product 1' || '%' ESCAPE '\\' " +
+                "ORDER BY lower(p.name) <-> lower('product 1'), p.id LIMIT 20", String.class);
+        
+        assertThat(String.join("\n", plan))
+                .contains("idx_products_name_trgm_gist")
+                .doesNotContain("Seq Scan");
+    }
+    
+    private Long create(String name) {
+        ProductDto product = TestData.product(10);
+        product.setName(name);
+        return productService.createProduct(product).getId();
+    }
+    
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.TestData;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ProductSearchTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Test
+    void queriesShorterThanATrigramMatchNamePrefixes() {
+        // A prefix no other test creates names with
+        Long second = create("zqb tv " + TestData.unique("b"));
+        Long first = create("zqa tv " + TestData.unique("a"));
+        create("tv zq" + TestData.unique("c"));
+        
+        assertThat(productService.searchProductsByName("ZQ", 0, 10))
+                .extracting(ProductDto::getId).containsExactly(first, second);
+        assertThat(productSearchEngine.search("zq", 1, 10)).containsExactly(second);
+        assertThat(productSearchEngine.search("zqb", 0, 10)).containsExactly(second);
+    }
+    
+    @Test
+    void indexesProductsOnlyOnceTheyCommit() {
+        String tag = TestData.unique("commit").toLowerCase();
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            create("rolled back " + tag);
+            assertThat(productSearchEngine.search(tag, 0, 10)).isEmpty();
+            status.setRollbackOnly();
+        });
+        assertThat(productSearchEngine.search(tag, 0, 10)).isEmpty();
+        
+        Long committed = create("committed " + tag);
+        assertThat(productSearchEngine.search(tag, 0, 10)).containsExactly(committed);
+    }
+    
+    @Test
+    void matchesWildcardCharactersLiterally() {
+        String tag = TestData.unique("literal").toLowerCase();
+        Long underscore = create("snake_case " + tag);
+        create("snakeXcase " + tag);
+        
+        List<ProductDto> found = productService.searchProductsByName("e_case " + tag, 0, 10);
+        
+        assertThat(found).extracting(ProductDto::getId).containsExactly(underscore);
+    }
+    
+    @Test
+    void escapesLikeWildcardsForPostgres() {
+        assertThat(PostgresTrigramProductSearchEngine.escapeLike("100%_a\\b"))
+                .isEqualTo("100\\%\\_a\\\\b");
+    }
+    
+    private Long create(String name) {
+        ProductDto product = TestData.product(10);
+        product.setName(name);
+        return productService.createProduct(product).getId();
+    }
+}